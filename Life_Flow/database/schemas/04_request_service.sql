@@ -29,12 +29,15 @@ CREATE TABLE blood_requests (
     cancelled_at TIMESTAMP NULL,
     cancellation_reason VARCHAR(500),
     notes TEXT,
+    accepted_donor_count INT NOT NULL DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0,
     INDEX idx_hospital_id (hospital_id),
     INDEX idx_blood_type_needed (blood_type_needed),
     INDEX idx_status (status),
     INDEX idx_urgency_level (urgency_level),
     INDEX idx_created_at (created_at),
-    INDEX idx_deadline_timestamp (deadline_timestamp)
+    INDEX idx_deadline_timestamp (deadline_timestamp),
+    INDEX idx_status_deadline_request (status, deadline_timestamp, request_id)
 );
 
 -- REQUEST RESPONSES (Donor Responses)
@@ -59,6 +62,7 @@ CREATE TABLE request_responses (
     points_claimed_at TIMESTAMP NULL,
     blood_bag_assigned_id VARCHAR(100),
     matched_score INT, -- Compatibility score 0-100
+    version BIGINT NOT NULL DEFAULT 0,
     FOREIGN KEY (request_id) REFERENCES blood_requests(request_id),
     INDEX idx_request_id (request_id),
     INDEX idx_donor_id (donor_id),
@@ -149,3 +153,33 @@ CREATE TABLE request_status_history (
     INDEX idx_request_id (request_id),
     INDEX idx_changed_at (changed_at)
 );
+
+-- OUTBOX EVENTS (Written with the state change, relayed to RabbitMQ after commit)
+CREATE TABLE outbox_events (
+    event_id VARCHAR(50) PRIMARY KEY,
+    aggregate_id VARCHAR(50) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    routing_key VARCHAR(100) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    last_error VARCHAR(500),
+    INDEX idx_outbox_unpublished (published_at, created_at)
+);
+
+-- IDEMPOTENCY KEYS (Stored responses for retried create/accept calls)
+CREATE TABLE idempotency_keys (
+    record_id VARCHAR(50) PRIMARY KEY,
+    scope VARCHAR(50) NOT NULL,
+    caller VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    response_status INT,
+    response_body TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    UNIQUE KEY uk_idempotency_scope_caller_key (scope, caller, idempotency_key),
+    INDEX idx_idempotency_expires_at (expires_at)
+);
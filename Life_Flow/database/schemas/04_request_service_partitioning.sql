@@ -0,0 +1,300 @@
+-- REQUEST SERVICE: MONTHLY PARTITIONING & COLD ARCHIVE (PostgreSQL 14+)
+-- Converts blood_requests and request_responses to monthly range partitions
+-- and adds the archive tables and functions used by the request service's
+-- partition maintenance job.
+--
+-- Run once against lifeflow_request after the base schema exists, in a
+-- maintenance window: the data copy locks both tables. Then set
+-- requests.partitioning.enabled=true for the request service.
+--
+-- blood_requests is partitioned on request_id. Request ids come from the
+-- shared time-ordered generator (IdGenerator in lifeflow-common): "req-"
+-- followed by 13 Crockford base32 characters of (milliseconds since
+-- 2024-01-01 UTC << 22), so they sort by creation time and each month is
+-- one id range. Partitioning on the id keeps the primary key the single id
+-- column the entity maps, lets lookups by id prune to one partition, and
+-- keeps request_id unique in the database. Ids are [0-9A-Z] after a fixed
+-- prefix, which sorts the same under the C collation and the usual
+-- libc/ICU ones. Time-filtered queries add an id lower bound computed with
+-- IdGenerator.lowerBound so they prune too.
+--
+-- request_responses is partitioned on response_created_at: response ids
+-- are not minted by this generator, so they carry no time order. Its primary key becomes (response_id,
+-- response_created_at).
+--
+-- Requests whose ids fall outside every monthly range (older
+-- "req-XXXXXXXX" ids) and responses outside the created months live in
+-- the DEFAULT partitions and are archived row by row once closed.
+
+BEGIN;
+
+-- Lowest id with the given prefix minted at or after month_start (UTC);
+-- mirrors IdGenerator.lowerBound. The date is read as UTC explicitly so the
+-- result does not depend on the session time zone.
+CREATE OR REPLACE FUNCTION lifeflow_id_lower_bound(prefix TEXT, month_start DATE)
+RETURNS TEXT AS $$
+DECLARE
+    alphabet CONSTANT TEXT := '0123456789ABCDEFGHJKMNPQRSTVWXYZ';
+    id BIGINT := GREATEST(0, (EXTRACT(EPOCH FROM (month_start::TIMESTAMP AT TIME ZONE 'UTC')) * 1000)::BIGINT
+                             - 1704067200000) << 22;
+    encoded TEXT := '';
+BEGIN
+    FOR i IN 1 .. 13 LOOP
+        encoded := substr(alphabet, (id & 31)::INT + 1, 1) || encoded;
+        id := id >> 5;
+    END LOOP;
+    RETURN prefix || encoded;
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+-- BLOOD REQUESTS (partitioned by request_id)
+ALTER TABLE blood_requests RENAME TO blood_requests_legacy;
+
+CREATE TABLE blood_requests (
+    LIKE blood_requests_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (request_id)
+) PARTITION BY RANGE (request_id);
+
+CREATE INDEX idx_br_hospital_id ON blood_requests (hospital_id);
+CREATE INDEX idx_br_blood_type_needed ON blood_requests (blood_type_needed);
+CREATE INDEX idx_br_created_at ON blood_requests (created_at);
+CREATE INDEX idx_br_deadline_timestamp ON blood_requests (deadline_timestamp);
+CREATE INDEX idx_br_status_deadline_request ON blood_requests (status, deadline_timestamp, request_id);
+
+CREATE TABLE blood_requests_default PARTITION OF blood_requests DEFAULT;
+
+-- REQUEST RESPONSES (partitioned by response_created_at)
+ALTER TABLE request_responses RENAME TO request_responses_legacy;
+
+CREATE TABLE request_responses (
+    LIKE request_responses_legacy INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    PRIMARY KEY (response_id, response_created_at)
+) PARTITION BY RANGE (response_created_at);
+
+CREATE INDEX idx_rr_request_id ON request_responses (request_id);
+CREATE INDEX idx_rr_donor_id ON request_responses (donor_id);
+CREATE INDEX idx_rr_hospital_id ON request_responses (hospital_id);
+CREATE INDEX idx_rr_response_status ON request_responses (response_status);
+CREATE INDEX idx_rr_response_created_at ON request_responses (response_created_at);
+
+CREATE TABLE request_responses_default PARTITION OF request_responses DEFAULT;
+
+-- COLD ARCHIVE (append-only, packed pages, LZ4-compressed text, few indexes).
+-- Partitioned by creation month with no default partition, so rows from
+-- the hot default partitions can never block a later month.
+CREATE TABLE blood_requests_archive (
+    LIKE blood_requests_legacy INCLUDING DEFAULTS
+) PARTITION BY RANGE (created_at);
+
+ALTER TABLE blood_requests_archive ALTER COLUMN patient_condition SET COMPRESSION lz4;
+ALTER TABLE blood_requests_archive ALTER COLUMN cancellation_reason SET COMPRESSION lz4;
+ALTER TABLE blood_requests_archive ALTER COLUMN notes SET COMPRESSION lz4;
+CREATE INDEX idx_bra_request_id ON blood_requests_archive (request_id);
+CREATE INDEX idx_bra_hospital_created ON blood_requests_archive (hospital_id, created_at);
+
+CREATE TABLE request_responses_archive (
+    LIKE request_responses_legacy INCLUDING DEFAULTS
+) PARTITION BY RANGE (response_created_at);
+
+ALTER TABLE request_responses_archive ALTER COLUMN rejection_reason SET COMPRESSION lz4;
+CREATE INDEX idx_rra_request_id ON request_responses_archive (request_id);
+CREATE INDEX idx_rra_donor_created ON request_responses_archive (donor_id, response_created_at);
+
+-- Create the hot partitions for [from_month, from_month + months)
+CREATE OR REPLACE FUNCTION lifeflow_create_request_partitions(from_month DATE, months INT)
+RETURNS INT AS $$
+DECLARE
+    month_start DATE;
+    suffix TEXT;
+    created INT := 0;
+BEGIN
+    FOR i IN 0 .. months - 1 LOOP
+        month_start := GREATEST(date_trunc('month', from_month)::DATE, DATE '2024-01-01')
+                       + make_interval(months => i);
+        suffix := to_char(month_start, '"y"YYYY"m"MM');
+
+        IF to_regclass('blood_requests_' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF blood_requests FOR VALUES FROM (%L) TO (%L)',
+                           'blood_requests_' || suffix,
+                           lifeflow_id_lower_bound('req-', month_start),
+                           lifeflow_id_lower_bound('req-', (month_start + INTERVAL '1 month')::DATE));
+            created := created + 1;
+        END IF;
+
+        IF to_regclass('request_responses_' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF request_responses FOR VALUES FROM (%L) TO (%L)',
+                           'request_responses_' || suffix,
+                           month_start, month_start + INTERVAL '1 month');
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Create the archive partitions of archive_table for every creation month
+-- present in source_table
+CREATE OR REPLACE FUNCTION lifeflow_create_archive_partitions(archive_table TEXT, source_table TEXT,
+                                                              created_column TEXT, archive_tablespace TEXT)
+RETURNS VOID AS $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN
+        EXECUTE format('SELECT DISTINCT date_trunc(''month'', %I)::DATE FROM %I', created_column, source_table)
+    LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I '
+                       'FOR VALUES FROM (%L) TO (%L) WITH (fillfactor = 100) TABLESPACE %I',
+                       archive_table || '_' || to_char(month_start, '"y"YYYY"m"MM'), archive_table,
+                       month_start, month_start + INTERVAL '1 month', archive_tablespace);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Move one month of requests and responses to the archive. Returns the
+-- number of requests moved, or -1 if the month still has open requests.
+CREATE OR REPLACE FUNCTION lifeflow_archive_request_month(month_start DATE, archive_tablespace TEXT)
+RETURNS INT AS $$
+DECLARE
+    suffix TEXT := to_char(month_start, '"y"YYYY"m"MM');
+    hot_requests TEXT := 'blood_requests_' || suffix;
+    hot_responses TEXT := 'request_responses_' || suffix;
+    open_count INT;
+    moved INT := 0;
+BEGIN
+    IF to_regclass(hot_requests) IS NOT NULL THEN
+        EXECUTE format('SELECT count(*) FROM %I WHERE status NOT IN (''FULFILLED'', ''CANCELLED'', ''EXPIRED'')',
+                       hot_requests) INTO open_count;
+        IF open_count > 0 THEN
+            RAISE NOTICE '% still has % open requests, not archiving', hot_requests, open_count;
+            RETURN -1;
+        END IF;
+
+        PERFORM lifeflow_create_archive_partitions('blood_requests_archive', hot_requests,
+                                                   'created_at', archive_tablespace);
+        EXECUTE format('INSERT INTO blood_requests_archive SELECT * FROM %I', hot_requests);
+        GET DIAGNOSTICS moved = ROW_COUNT;
+        EXECUTE format('ALTER TABLE blood_requests DETACH PARTITION %I', hot_requests);
+        EXECUTE format('DROP TABLE %I', hot_requests);
+    END IF;
+
+    IF to_regclass(hot_responses) IS NOT NULL THEN
+        PERFORM lifeflow_create_archive_partitions('request_responses_archive', hot_responses,
+                                                   'response_created_at', archive_tablespace);
+        EXECUTE format('INSERT INTO request_responses_archive SELECT * FROM %I', hot_responses);
+        EXECUTE format('ALTER TABLE request_responses DETACH PARTITION %I', hot_responses);
+        EXECUTE format('DROP TABLE %I', hot_responses);
+    END IF;
+
+    RETURN moved;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Move closed requests created before cutoff, and responses created before
+-- cutoff, out of the default partitions. Returns the number of requests moved.
+CREATE OR REPLACE FUNCTION lifeflow_archive_request_defaults(cutoff DATE, archive_tablespace TEXT)
+RETURNS INT AS $$
+DECLARE
+    moved INT;
+BEGIN
+    CREATE TEMP TABLE lifeflow_archiving AS
+        SELECT * FROM blood_requests_default
+        WHERE status IN ('FULFILLED', 'CANCELLED', 'EXPIRED') AND created_at < cutoff;
+    PERFORM lifeflow_create_archive_partitions('blood_requests_archive', 'lifeflow_archiving',
+                                               'created_at', archive_tablespace);
+    INSERT INTO blood_requests_archive SELECT * FROM lifeflow_archiving;
+    GET DIAGNOSTICS moved = ROW_COUNT;
+    DELETE FROM blood_requests_default d USING lifeflow_archiving a WHERE d.request_id = a.request_id;
+    DROP TABLE lifeflow_archiving;
+
+    CREATE TEMP TABLE lifeflow_archiving AS
+        SELECT * FROM request_responses_default WHERE response_created_at < cutoff;
+    PERFORM lifeflow_create_archive_partitions('request_responses_archive', 'lifeflow_archiving',
+                                               'response_created_at', archive_tablespace);
+    INSERT INTO request_responses_archive SELECT * FROM lifeflow_archiving;
+    DELETE FROM request_responses_default d USING lifeflow_archiving a WHERE d.response_id = a.response_id;
+    DROP TABLE lifeflow_archiving;
+
+    RETURN moved;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Archive every hot month that ended before the first of the month
+-- keep_months ago, oldest first and stopping at the first month that still
+-- has open requests, then the default partitions' rows from before then.
+-- Returns the number of requests moved.
+CREATE OR REPLACE FUNCTION lifeflow_archive_request_partitions(keep_months INT, archive_tablespace TEXT)
+RETURNS INT AS $$
+DECLARE
+    cutoff DATE := date_trunc('month', now())::DATE - make_interval(months => keep_months);
+    month_start DATE;
+    moved INT;
+    total INT := 0;
+BEGIN
+    FOR month_start IN
+        SELECT DISTINCT to_date(substring(c.relname FROM 'y\d{4}m\d{2}$'), '"y"YYYY"m"MM')
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent IN ('blood_requests'::regclass, 'request_responses'::regclass)
+          AND c.relname ~ '_y\d{4}m\d{2}$'
+        ORDER BY 1
+    LOOP
+        EXIT WHEN month_start >= cutoff;
+        moved := lifeflow_archive_request_month(month_start, archive_tablespace);
+        EXIT WHEN moved < 0;
+        total := total + moved;
+    END LOOP;
+    RETURN total + lifeflow_archive_request_defaults(cutoff, archive_tablespace);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Partitions for existing history through three months ahead, then copy
+DO $$
+DECLARE
+    first_month DATE := date_trunc('month',
+        COALESCE((SELECT min(created_at) FROM blood_requests_legacy), now()))::DATE;
+BEGIN
+    first_month := GREATEST(first_month, DATE '2024-01-01');
+    PERFORM lifeflow_create_request_partitions(first_month,
+        ((EXTRACT(YEAR FROM now()) - EXTRACT(YEAR FROM first_month)) * 12
+         + EXTRACT(MONTH FROM now()) - EXTRACT(MONTH FROM first_month))::INT + 4);
+END
+$$;
+
+-- The partition key is part of the primary key, so it must be set
+UPDATE request_responses_legacy rr
+SET response_created_at = COALESCE(
+    (SELECT br.created_at FROM blood_requests_legacy br WHERE br.request_id = rr.request_id), now())
+WHERE response_created_at IS NULL;
+
+INSERT INTO blood_requests SELECT * FROM blood_requests_legacy;
+INSERT INTO request_responses SELECT * FROM request_responses_legacy;
+
+-- The foreign keys from other tables into the old ones are dropped rather
+-- than recreated: archiving detaches whole months, which Postgres refuses
+-- while rows in tables that are never archived still reference them. They
+-- are looked up in the catalog because their names depend on how the base
+-- schema was loaded. The legacy tables are then dropped without CASCADE,
+-- so anything else that still depends on them stops the migration instead
+-- of being dropped silently.
+DO $$
+DECLARE
+    fk RECORD;
+BEGIN
+    FOR fk IN
+        SELECT c.conrelid::regclass AS table_name, c.conname
+        FROM pg_constraint c
+        WHERE c.contype = 'f'
+          AND c.confrelid IN ('blood_requests_legacy'::regclass, 'request_responses_legacy'::regclass)
+          AND c.conrelid NOT IN ('blood_requests_legacy'::regclass, 'request_responses_legacy'::regclass)
+    LOOP
+        RAISE NOTICE 'Dropping foreign key % on %', fk.conname, fk.table_name;
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', fk.table_name, fk.conname);
+    END LOOP;
+END
+$$;
+
+DROP TABLE request_responses_legacy;
+DROP TABLE blood_requests_legacy;
+
+COMMIT;
@@ -0,0 +1,114 @@
+package com.lifeflow.common.id;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free generator of compact, time-ordered IDs.
+ *
+ * Each ID is a 64-bit value laid out Snowflake style:
+ *   41 bits  milliseconds since 2024-01-01T00:00Z (good until ~2093)
+ *   10 bits  node id (0-1023), unique per running instance
+ *   12 bits  sequence within the millisecond
+ * rendered as 13 Crockford base32 characters, so IDs sort by creation
+ * time both numerically and as strings.
+ *
+ * When a millisecond's 4096 sequence values are used up, or the clock
+ * steps back, the generator carries into the next millisecond instead of
+ * blocking, so IDs from one node are always unique and increasing.
+ */
+public final class IdGenerator {
+
+    public static final long EPOCH_MILLIS = 1704067200000L;
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    // Last issued (millis << SEQUENCE_BITS | sequence)
+    private final AtomicLong state = new AtomicLong();
+
+    public IdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    IdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    /**
+     * Generator whose node id is derived from the host name and process id.
+     * Development only: hashed node ids can collide, so deployments must
+     * assign node ids explicitly.
+     */
+    public static IdGenerator forLocalNode() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "localhost";
+        }
+        return new IdGenerator((host + ":" + ProcessHandle.current().pid()).hashCode() & MAX_NODE_ID);
+    }
+
+    public long nextLong() {
+        long now = clock.getAsLong() - EPOCH_MILLIS;
+        long next = state.updateAndGet(last ->
+                now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1);
+
+        long millis = next >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * Next ID as a 13-character string
+     */
+    public String nextId() {
+        return encode(nextLong());
+    }
+
+    /**
+     * Next ID with a type prefix, e.g. "req-" or "hosp-"
+     */
+    public String nextId(String prefix) {
+        return prefix + encode(nextLong());
+    }
+
+    public static String encode(long id) {
+        char[] chars = new char[ENCODED_LENGTH];
+        for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Smallest ID with {@code prefix} that can be generated at or after
+     * {@code at}, for turning a time filter into an ID range
+     */
+    public static String lowerBound(String prefix, Instant at) {
+        long millis = Math.max(0, at.toEpochMilli() - EPOCH_MILLIS);
+        return prefix + encode(millis << (NODE_BITS + SEQUENCE_BITS));
+    }
+
+    /**
+     * When an ID was generated
+     */
+    public static Instant instantOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS);
+    }
+}
@@ -0,0 +1,31 @@
+package com.lifeflow.common.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+/**
+ * Time-ordered ID generator shared by every service that mints IDs.
+ *
+ * Every instance needs its own {@code lifeflow.id.node-id} (0-1023), or two
+ * instances can mint the same ID. Only the dev, local and test profiles may
+ * leave it unset and fall back to a node id hashed from host and pid.
+ */
+@AutoConfiguration
+public class IdGeneratorConfig {
+
+    private static final Profiles DEV_PROFILES = Profiles.of("dev", "local", "test");
+
+    @Bean
+    public IdGenerator idGenerator(@Value("${lifeflow.id.node-id:-1}") int nodeId, Environment environment) {
+        if (nodeId >= 0) return new IdGenerator(nodeId);
+
+        if (!environment.acceptsProfiles(DEV_PROFILES)) {
+            throw new IllegalStateException("lifeflow.id.node-id (LIFEFLOW_NODE_ID) must be set to a "
+                    + "per-instance value between 0 and " + IdGenerator.MAX_NODE_ID);
+        }
+        return IdGenerator.forLocalNode();
+    }
+}
@@ -0,0 +1,94 @@
+package com.lifeflow.common.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdGeneratorTest {
+
+    private static final long T = Instant.parse("2026-03-01T12:00:00Z").toEpochMilli();
+
+    @Test
+    void idsIncreaseNumericallyAndAsStrings() {
+        IdGenerator generator = new IdGenerator(7);
+        long previous = generator.nextLong();
+
+        for (int i = 0; i < 100_000; i++) {
+            long next = generator.nextLong();
+            assertTrue(next > previous);
+            assertTrue(IdGenerator.encode(next).compareTo(IdGenerator.encode(previous)) > 0);
+            previous = next;
+        }
+    }
+
+    @Test
+    void carriesIntoNextMillisecondWhenSequenceRunsOut() {
+        IdGenerator generator = new IdGenerator(1, () -> T);
+
+        long last = 0;
+        for (int i = 0; i < 4096; i++) {
+            last = generator.nextLong();
+            assertEquals(Instant.ofEpochMilli(T), IdGenerator.instantOf(last));
+        }
+
+        long carried = generator.nextLong();
+        assertTrue(carried > last);
+        assertEquals(Instant.ofEpochMilli(T + 1), IdGenerator.instantOf(carried));
+    }
+
+    @Test
+    void staysIncreasingWhenClockStepsBack() {
+        AtomicLong clock = new AtomicLong(T + 10);
+        IdGenerator generator = new IdGenerator(1, clock::get);
+
+        long before = generator.nextLong();
+        clock.set(T);
+        long after = generator.nextLong();
+
+        assertTrue(after > before);
+        assertEquals(Instant.ofEpochMilli(T + 10), IdGenerator.instantOf(after));
+
+        clock.set(T + 11);
+        assertEquals(Instant.ofEpochMilli(T + 11), IdGenerator.instantOf(generator.nextLong()));
+    }
+
+    @Test
+    void nodeIdKeepsConcurrentNodesApart() {
+        long first = new IdGenerator(1, () -> T).nextLong();
+        long second = new IdGenerator(2, () -> T).nextLong();
+
+        assertNotEquals(first, second);
+        assertEquals(IdGenerator.instantOf(first), IdGenerator.instantOf(second));
+    }
+
+    @Test
+    void encodesThirteenCrockfordCharacters() {
+        assertEquals("0000000000000", IdGenerator.encode(0));
+        assertEquals("7ZZZZZZZZZZZZ", IdGenerator.encode(Long.MAX_VALUE));
+
+        String id = new IdGenerator(3, () -> T).nextId("req-");
+        assertTrue(id.matches("req-[0-9A-HJKMNP-TV-Z]{13}"), id);
+    }
+
+    @Test
+    void lowerBoundSortsAtOrBeforeIdsFromThatInstant() {
+        String id = new IdGenerator(IdGenerator.MAX_NODE_ID, () -> T).nextId("req-");
+        String bound = IdGenerator.lowerBound("req-", Instant.ofEpochMilli(T));
+
+        assertTrue(bound.compareTo(id) <= 0);
+        assertTrue(IdGenerator.lowerBound("req-", Instant.ofEpochMilli(T + 1)).compareTo(id) > 0);
+        assertEquals("req-0000000000000", IdGenerator.lowerBound("req-", Instant.EPOCH));
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(IdGenerator.MAX_NODE_ID + 1));
+    }
+}
@@ -1,5 +1,6 @@
 package com.lifeflow.donor.service;
 
+import com.lifeflow.common.id.IdGenerator;
 import com.lifeflow.donor.dto.CreateHospitalDTO;
 import com.lifeflow.donor.dto.HospitalProfileDTO;
 import com.lifeflow.donor.entity.HospitalProfile;
@@ -13,7 +14,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -22,6 +22,7 @@ import java.util.stream.Collectors;
 public class HospitalService {
 
     private final HospitalRepository hospitalRepository;
+    private final IdGenerator idGenerator;
 
     /**
      * Register new hospital
@@ -30,7 +31,7 @@ public class HospitalService {
     public HospitalProfile registerHospital(CreateHospitalDTO dto) {
         log.info("Registering hospital: {}", dto.getHospitalName());
 
-        String hospitalId = "hosp-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String hospitalId = idGenerator.nextId("hosp-");
 
         HospitalProfile hospital = HospitalProfile.builder()
                 .hospitalId(hospitalId)
@@ -0,0 +1,48 @@
+package com.lifeflow.request.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors for the matching engine's downstream fan-out and for
+ * streaming match updates
+ */
+@Configuration
+public class MatchingExecutorConfig {
+
+    @Bean(name = "matchingExecutor")
+    public ThreadPoolTaskExecutor matchingExecutor(
+            @Value("${matching.executor.core-pool-size:16}") int corePoolSize,
+            @Value("${matching.executor.max-pool-size:64}") int maxPoolSize,
+            @Value("${matching.executor.queue-capacity:500}") int queueCapacity) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("matching-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Separate pool for streaming refreshes, which block on the matching
+     * executor and must not compete with it for threads
+     */
+    @Bean(name = "streamingExecutor")
+    public ThreadPoolTaskExecutor streamingExecutor(
+            @Value("${matching.stream.pool-size:8}") int poolSize) {
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(1000);
+        executor.setThreadNamePrefix("match-stream-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,14 @@
+package com.lifeflow.request.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables background jobs such as the eligible-donor index resync.
+ * The scheduler pool is sized in spring.task.scheduling.pool.size to
+ * cover every job; raise it when adding one.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,54 @@
+package com.lifeflow.request.controller;
+
+import com.lifeflow.common.dto.ApiResponse;
+import com.lifeflow.request.dto.AssignmentResultDTO;
+import com.lifeflow.request.service.DonorAssignmentEngine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/requests/assignments")
+@RequiredArgsConstructor
+public class AssignmentController {
+
+    private final DonorAssignmentEngine assignmentEngine;
+
+    /**
+     * Run global donor assignment across all pending requests now
+     * POST /api/v1/requests/assignments/run
+     */
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AssignmentResultDTO>> runAssignment() {
+        
+        log.info("On-demand donor assignment requested");
+        
+        AssignmentResultDTO result = assignmentEngine.assignPendingRequests();
+        
+        return ResponseEntity.ok(ApiResponse.success(
+                "Donor assignment completed",
+                result
+        ));
+    }
+
+    /**
+     * Get the most recent assignment run. Admin only: it lists every
+     * hospital's assigned donors, contact details included.
+     * GET /api/v1/requests/assignments/latest
+     */
+    @GetMapping("/latest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<AssignmentResultDTO>> getLatestAssignment() {
+        
+        log.info("Fetching latest donor assignment");
+        
+        return ResponseEntity.ok(ApiResponse.success(
+                "Latest donor assignment retrieved",
+                assignmentEngine.getLastAssignment()
+        ));
+    }
+}
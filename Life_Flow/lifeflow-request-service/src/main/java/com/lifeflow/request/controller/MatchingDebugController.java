@@ -0,0 +1,38 @@
+package com.lifeflow.request.controller;
+
+import com.lifeflow.common.dto.ApiResponse;
+import com.lifeflow.request.dto.SlowMatchDTO;
+import com.lifeflow.request.service.MatchingMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/requests/debug")
+@RequiredArgsConstructor
+public class MatchingDebugController {
+
+    private final MatchingMetrics matchingMetrics;
+
+    /**
+     * Get the most recent slow matching runs with per-stage timings
+     * GET /api/v1/requests/debug/slow-matches?limit=20
+     */
+    @GetMapping("/slow-matches")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<List<SlowMatchDTO>>> getSlowMatches(
+            @RequestParam(defaultValue = "20") Integer limit) {
+        
+        log.info("Fetching last {} slow matches", limit);
+        
+        return ResponseEntity.ok(ApiResponse.success(
+                "Slow matches retrieved",
+                matchingMetrics.getSlowMatches(limit)
+        ));
+    }
+}
@@ -1,18 +1,33 @@
 package com.lifeflow.request.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lifeflow.common.dto.ApiResponse;
+import com.lifeflow.request.dto.BulkCreateRequestDTO;
 import com.lifeflow.request.dto.CreateRequestDTO;
+import com.lifeflow.request.dto.CursorPageDTO;
+import com.lifeflow.request.dto.MatchResultDTO;
 import com.lifeflow.request.dto.RequestResponseDTO;
+import com.lifeflow.request.dto.RequestSummaryDTO;
 import com.lifeflow.request.entity.BloodRequest;
+import com.lifeflow.request.service.IdempotencyService;
+import com.lifeflow.request.service.MatchStreamService;
 import com.lifeflow.request.service.RequestService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.Principal;
 import java.util.List;
 
 @Slf4j
@@ -22,6 +37,9 @@ import java.util.List;
 public class RequestController {
 
     private final RequestService requestService;
+    private final MatchStreamService matchStreamService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Create an emergency blood request
@@ -30,18 +48,54 @@ public class RequestController {
     @PostMapping("/create")
     @PreAuthorize("hasAnyRole('HOSPITAL', 'ADMIN')")
     public ResponseEntity<ApiResponse<RequestResponseDTO>> createRequest(
-            @Valid @RequestBody CreateRequestDTO createRequestDTO) {
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody CreateRequestDTO createRequestDTO,
+            Principal principal) {
         
         log.info("Emergency blood request received from hospital: {} for blood type: {}",
                 createRequestDTO.getHospitalId(), createRequestDTO.getBloodType());
         
-        BloodRequest request = requestService.createEmergencyRequest(createRequestDTO);
+        return idempotencyService.execute("create", callerOf(principal), idempotencyKey,
+                createRequestDTO,
+                new TypeReference<ApiResponse<RequestResponseDTO>>() {}, () -> {
+                    BloodRequest request = requestService.createEmergencyRequest(createRequestDTO);
+
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .body(ApiResponse.success(
+                                    "Emergency request created and donor search initiated",
+                                    RequestResponseDTO.fromEntity(request)
+                            ));
+                });
+    }
+
+    /**
+     * Create many emergency blood requests in one call (drills, scheduled surgeries)
+     * POST /api/v1/requests/bulk
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAnyRole('HOSPITAL', 'ADMIN')")
+    public ResponseEntity<ApiResponse<List<RequestResponseDTO>>> createRequests(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BulkCreateRequestDTO bulkCreateRequestDTO,
+            Principal principal) {
         
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success(
-                        "Emergency request created and donor search initiated",
-                        RequestResponseDTO.fromEntity(request)
-                ));
+        log.info("Bulk emergency request received with {} requests",
+                bulkCreateRequestDTO.getRequests().size());
+        
+        return idempotencyService.execute("bulk-create", callerOf(principal), idempotencyKey,
+                bulkCreateRequestDTO,
+                new TypeReference<ApiResponse<List<RequestResponseDTO>>>() {}, () -> {
+                    List<BloodRequest> requests = requestService.createEmergencyRequests(
+                            bulkCreateRequestDTO.getRequests());
+
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .body(ApiResponse.success(
+                                    requests.size() + " emergency requests created and donor search initiated",
+                                    requests.stream()
+                                            .map(RequestResponseDTO::fromEntity)
+                                            .toList()
+                            ));
+                });
     }
 
     /**
@@ -68,18 +122,91 @@ public class RequestController {
      */
     @GetMapping("/active")
     @PreAuthorize("hasAnyRole('HOSPITAL', 'ADMIN')")
-    public ResponseEntity<ApiResponse<List<RequestResponseDTO>>> getActiveRequests() {
+    public ResponseEntity<ApiResponse<List<RequestSummaryDTO>>> getActiveRequests() {
         
         log.info("Fetching all active requests");
         
-        List<BloodRequest> requests = requestService.getActiveRequests();
+        List<RequestSummaryDTO> requests = requestService.getActiveRequests();
         
-        return ResponseEntity.ok(ApiResponse.success(
-                "Active requests retrieved",
-                requests.stream()
-                        .map(RequestResponseDTO::fromEntity)
-                        .toList()
-        ));
+        return ResponseEntity.ok(ApiResponse.success("Active requests retrieved", requests));
+    }
+
+    /**
+     * Get active requests of a hospital
+     * GET /api/v1/requests/hospital/{hospitalId}/active
+     */
+    @GetMapping("/hospital/{hospitalId}/active")
+    @PreAuthorize("hasAnyRole('HOSPITAL', 'ADMIN')")
+    public ResponseEntity<ApiResponse<List<RequestSummaryDTO>>> getActiveRequestsByHospital(
+            @PathVariable String hospitalId) {
+        
+        log.info("Fetching active requests for hospital: {}", hospitalId);
+        
+        List<RequestSummaryDTO> requests = requestService.getActiveRequestsByHospital(hospitalId);
+        
+        return ResponseEntity.ok(ApiResponse.success("Hospital active requests retrieved", requests));
+    }
+
+    /**
+     * Get open critical requests
+     * GET /api/v1/requests/critical
+     */
+    @GetMapping("/critical")
+    @PreAuthorize("hasAnyRole('HOSPITAL', 'ADMIN')")
+    public ResponseEntity<ApiResponse<List<RequestSummaryDTO>>> getCriticalRequests() {
+        
+        log.info("Fetching critical requests");
+        
+        List<RequestSummaryDTO> requests = requestService.getCriticalRequests();
+        
+        return ResponseEntity.ok(ApiResponse.success("Critical requests retrieved", requests));
+    }
+
+    /**
+     * Get active requests one keyset page at a time
+     * GET /api/v1/requests/active/page?cursor=...&size=50
+     */
+    @GetMapping("/active/page")
+    @PreAuthorize("hasAnyRole('HOSPITAL', 'ADMIN')")
+    public ResponseEntity<ApiResponse<CursorPageDTO<RequestSummaryDTO>>> getActiveRequestPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") Integer size) {
+        
+        log.info("Fetching active requests page of {} after cursor: {}", size, cursor);
+        
+        CursorPageDTO<RequestSummaryDTO> page = requestService.getActiveRequestPage(cursor, size);
+        
+        return ResponseEntity.ok(ApiResponse.success("Active requests page retrieved", page));
+    }
+
+    /**
+     * Stream all active requests as a JSON array, written incrementally
+     * from a database cursor
+     * GET /api/v1/requests/active/stream
+     */
+    @GetMapping(value = "/active/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasAnyRole('HOSPITAL', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamActiveRequests() {
+        
+        log.info("Streaming all active requests");
+        
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                requestService.streamActiveRequests(request -> {
+                    try {
+                        objectMapper.writeValue(generator, request);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     /**
@@ -91,17 +218,23 @@ public class RequestController {
     public ResponseEntity<ApiResponse<String>> acceptResponse(
             @PathVariable String requestId,
             @PathVariable String responseId,
-            @RequestParam Integer arrivalMinutes) {
+            @RequestParam Integer arrivalMinutes,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Principal principal) {
         
         log.info("Donor accepting response for request: {} with ETA: {} minutes",
                 requestId, arrivalMinutes);
         
-        requestService.acceptResponse(responseId, arrivalMinutes);
-        
-        return ResponseEntity.ok(ApiResponse.success(
-                "Response accepted. Please proceed to collection center",
-                responseId
-        ));
+        return idempotencyService.execute("accept-response", callerOf(principal), idempotencyKey,
+                List.of(requestId, responseId, arrivalMinutes),
+                new TypeReference<ApiResponse<String>>() {}, () -> {
+                    requestService.acceptResponse(requestId, responseId, arrivalMinutes);
+
+                    return ResponseEntity.ok(ApiResponse.success(
+                            "Response accepted. Please proceed to collection center",
+                            responseId
+                    ));
+                });
     }
 
     /**
@@ -126,20 +259,43 @@ public class RequestController {
 
     /**
      * Get matching donors for a request
-     * GET /api/v1/requests/{requestId}/matched-donors
+     * GET /api/v1/requests/{requestId}/matched-donors?limit=10
      */
     @GetMapping("/{requestId}/matched-donors")
     @PreAuthorize("hasAnyRole('HOSPITAL', 'ADMIN')")
-    public ResponseEntity<ApiResponse<List<?>>> getMatchedDonors(
-            @PathVariable String requestId) {
+    public ResponseEntity<ApiResponse<MatchResultDTO>> getMatchedDonors(
+            @PathVariable String requestId,
+            @RequestParam(defaultValue = "10") Integer limit) {
         
-        log.info("Fetching matched donors for request: {}", requestId);
+        log.info("Fetching top {} matched donors for request: {}", limit, requestId);
         
-        List<?> matchedDonors = requestService.getMatchedDonors(requestId);
+        MatchResultDTO matchResult = requestService.getMatchedDonors(requestId, limit);
         
         return ResponseEntity.ok(ApiResponse.success(
-                "Matched donors retrieved",
-                matchedDonors
+                matchResult.isPartial()
+                        ? "Partial match results retrieved within deadline budget"
+                        : "Matched donors retrieved",
+                matchResult
         ));
     }
+
+    /**
+     * Stream matching donors for a request as Server-Sent Events
+     * GET /api/v1/requests/{requestId}/matched-donors/stream?limit=10
+     * Events: "initial" (nearby tier), "ranking" (full result), "delta" (changes)
+     */
+    @GetMapping(value = "/{requestId}/matched-donors/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('HOSPITAL', 'ADMIN')")
+    public SseEmitter streamMatchedDonors(
+            @PathVariable String requestId,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        
+        log.info("Opening matched donor stream for request: {}", requestId);
+        
+        return matchStreamService.subscribe(requestId, limit);
+    }
+
+    private static String callerOf(Principal principal) {
+        return principal != null ? principal.getName() : null;
+    }
 }
@@ -0,0 +1,25 @@
+package com.lifeflow.request.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of one global donor assignment run across all pending requests
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssignmentResultDTO {
+
+    private Map<String, List<MatchedDonorDTO>> assignments;
+    private List<String> unfilledRequestIds;
+    private Integer requestCount;
+    private Integer assignedDonorCount;
+    private Long durationMs;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,20 @@
+package com.lifeflow.request.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkCreateRequestDTO {
+
+    @NotEmpty(message = "At least one request is required")
+    @Size(max = 500, message = "At most 500 requests per bulk submission")
+    private List<@Valid CreateRequestDTO> requests;
+}
@@ -0,0 +1,20 @@
+package com.lifeflow.request.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One-to-many distance query: a single origin against every destination.
+ * The geolocation service answers with distances (km) in destination order.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DistanceMatrixRequestDTO {
+
+    private String origin;
+    private List<String> destinations;
+}
@@ -0,0 +1,96 @@
+package com.lifeflow.request.dto;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Change between two rankings of the same request, streamed to hospitals
+ * after the initial batch: donors that entered the ranking, donors that
+ * stayed but whose score or distance changed, donors that left it, and
+ * the new order of donor ids
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MatchDeltaDTO {
+
+    private String requestId;
+    private List<MatchedDonorDTO> added;
+    private List<MatchedDonorDTO> updated;
+    private List<String> removedDonorIds;
+    private List<String> ranking;
+    private Boolean stockAvailable;
+    private Boolean partial;
+    private String partialReason;
+
+    public static MatchDeltaDTO between(MatchResultDTO previous, MatchResultDTO current) {
+        Map<String, MatchedDonorDTO> previousById = new HashMap<>();
+        previous.getDonors().forEach(donor -> previousById.put(donor.getDonorId(), donor));
+
+        List<MatchedDonorDTO> added = new ArrayList<>();
+        List<MatchedDonorDTO> updated = new ArrayList<>();
+        List<String> ranking = new ArrayList<>();
+        Set<String> currentIds = new HashSet<>();
+        for (MatchedDonorDTO donor : current.getDonors()) {
+            ranking.add(donor.getDonorId());
+            currentIds.add(donor.getDonorId());
+            MatchedDonorDTO before = previousById.get(donor.getDonorId());
+            if (before == null) {
+                added.add(donor);
+            } else if (!sameScoring(before, donor)) {
+                updated.add(donor);
+            }
+        }
+
+        List<String> removed = new ArrayList<>();
+        previousById.keySet().forEach(id -> {
+            if (!currentIds.contains(id)) removed.add(id);
+        });
+
+        return MatchDeltaDTO.builder()
+                .requestId(current.getRequestId())
+                .added(added)
+                .updated(updated)
+                .removedDonorIds(removed)
+                .ranking(ranking)
+                .stockAvailable(current.getStockAvailable())
+                .partial(current.getPartial())
+                .partialReason(current.getPartialReason())
+                .build();
+    }
+
+    /**
+     * True when both rankings list the same donors, in the same order,
+     * with the same scores, distances and stock/partial flags
+     */
+    public static boolean isUnchanged(MatchResultDTO previous, MatchResultDTO current) {
+        if (!Objects.equals(previous.getStockAvailable(), current.getStockAvailable())
+                || previous.isPartial() != current.isPartial()
+                || previous.getDonors().size() != current.getDonors().size()) {
+            return false;
+        }
+
+        for (int i = 0; i < current.getDonors().size(); i++) {
+            MatchedDonorDTO before = previous.getDonors().get(i);
+            MatchedDonorDTO after = current.getDonors().get(i);
+            if (!Objects.equals(before.getDonorId(), after.getDonorId()) || !sameScoring(before, after)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameScoring(MatchedDonorDTO before, MatchedDonorDTO after) {
+        return Objects.equals(before.getFinalMatchScore(), after.getFinalMatchScore())
+                && Objects.equals(before.getDistanceKm(), after.getDistanceKm());
+    }
+}
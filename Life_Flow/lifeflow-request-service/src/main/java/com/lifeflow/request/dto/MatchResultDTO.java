@@ -0,0 +1,30 @@
+package com.lifeflow.request.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Outcome of one matching run. When a downstream step ran past its slice
+ * of the time budget, {@code partial} is set and {@code partialReason}
+ * says which ranking inputs were missing or estimated.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class MatchResultDTO {
+
+    private String requestId;
+    private List<MatchedDonorDTO> donors;
+    private Boolean stockAvailable;
+    private Boolean partial;
+    private String partialReason;
+    private Long budgetMs;
+    private Long elapsedMs;
+
+    public boolean isPartial() {
+        return Boolean.TRUE.equals(partial);
+    }
+}
@@ -1,12 +1,14 @@
 package com.lifeflow.request.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.lifeflow.request.entity.BloodRequest;
 import lombok.*;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class MatchedDonorDTO {
 
     private String donorId;
@@ -33,4 +35,33 @@ public class MatchedDonorDTO {
     // Gamification
     private Integer totalPoints;
     private String badgeLevel;
+
+    // Parsed once from bloodType so scoring never touches the string
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private BloodRequest.BloodType bloodTypeCode;
+
+    public void setBloodType(String bloodType) {
+        this.bloodType = bloodType;
+        this.bloodTypeCode = null;
+    }
+
+    /**
+     * Shallow copy, so shared read-model entries are never scored in place
+     */
+    public MatchedDonorDTO copy() {
+        return toBuilder().build();
+    }
+
+    /**
+     * Donor blood type as an enum, or null when unrecognised
+     */
+    @JsonIgnore
+    public BloodRequest.BloodType getBloodTypeCode() {
+        if (bloodTypeCode == null) {
+            bloodTypeCode = BloodRequest.BloodType.parse(bloodType);
+        }
+        return bloodTypeCode;
+    }
 }
@@ -0,0 +1,42 @@
+package com.lifeflow.request.dto;
+
+import com.lifeflow.request.repository.RequestSummary;
+import lombok.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Compact request view for list and dashboard endpoints
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RequestSummaryDTO {
+
+    private String requestId;
+    private String hospitalId;
+    private String bloodType;
+    private Double unitsRequired;
+    private String urgencyLevel;
+    private String status;
+    private LocalDateTime deadlineTimestamp;
+    private Integer remainingMinutes;
+
+    public static RequestSummaryDTO fromSummary(RequestSummary summary) {
+        LocalDateTime deadline = summary.getDeadlineTimestamp();
+        return RequestSummaryDTO.builder()
+                .requestId(summary.getRequestId())
+                .hospitalId(summary.getHospitalId())
+                .bloodType(summary.getBloodTypeNeeded().toString())
+                .unitsRequired(summary.getUnitsRequired())
+                .urgencyLevel(summary.getUrgencyLevel().toString())
+                .status(summary.getStatus().toString())
+                .deadlineTimestamp(deadline)
+                .remainingMinutes(deadline != null
+                        ? (int) Duration.between(LocalDateTime.now(), deadline).toMinutes()
+                        : 0)
+                .build();
+    }
+}
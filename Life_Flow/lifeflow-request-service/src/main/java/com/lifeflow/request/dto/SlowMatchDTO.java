@@ -0,0 +1,27 @@
+package com.lifeflow.request.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A matching run that exceeded the slow-match threshold, with the time
+ * spent in each stage
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SlowMatchDTO {
+
+    private String requestId;
+    private String bloodType;
+    private String urgencyLevel;
+    private Long totalMs;
+    private Map<String, Long> stageMs;
+    private Integer candidateCount;
+    private Boolean partial;
+    private LocalDateTime recordedAt;
+}
@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Entity
@@ -13,14 +15,15 @@ import java.time.LocalDateTime;
     @Index(name = "idx_status", columnList = "status"),
     @Index(name = "idx_urgency_level", columnList = "urgency_level"),
     @Index(name = "idx_created_at", columnList = "created_at"),
-    @Index(name = "idx_deadline_timestamp", columnList = "deadline_timestamp")
+    @Index(name = "idx_deadline_timestamp", columnList = "deadline_timestamp"),
+    @Index(name = "idx_status_deadline_request", columnList = "status, deadline_timestamp, request_id")
 })
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-public class BloodRequest {
+public class BloodRequest implements Persistable<String> {
 
     @Id
     @Column(length = 50)
@@ -50,6 +53,8 @@ public class BloodRequest {
     @Column(name = "patient_gender", length = 10)
     private Gender patientGender;
 
+    // Large columns are only read on detail views (needs bytecode enhancement)
+    @Basic(fetch = FetchType.LAZY)
     @Column(name = "patient_condition", length = 500)
     private String patientCondition;
 
@@ -95,13 +100,53 @@ public class BloodRequest {
     @Column(name = "cancellation_reason", length = 500)
     private String cancellationReason;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    // Donors who accepted so far; compared atomically against units needed
+    @Builder.Default
+    @Column(name = "accepted_donor_count", nullable = false)
+    private Integer acceptedDonorCount = 0;
+
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Ids are assigned by the application, so Spring Data cannot tell new
+     * rows from existing ones by id; tracking it here lets save/saveAll
+     * persist (and JDBC-batch) new rows without a select-before-insert
+     */
+    @Transient
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean newEntity = true;
+
     // Enums
     public enum BloodType {
         O_POSITIVE, O_NEGATIVE, A_POSITIVE, A_NEGATIVE,
-        B_POSITIVE, B_NEGATIVE, AB_POSITIVE, AB_NEGATIVE
+        B_POSITIVE, B_NEGATIVE, AB_POSITIVE, AB_NEGATIVE;
+
+        /**
+         * Parse a donor-service blood type ("O_NEGATIVE" or "O-"), or null if unrecognised
+         */
+        public static BloodType parse(String bloodType) {
+            if (bloodType == null) return null;
+
+            return switch (bloodType.trim().toUpperCase()) {
+                case "O_POSITIVE", "O+" -> O_POSITIVE;
+                case "O_NEGATIVE", "O-" -> O_NEGATIVE;
+                case "A_POSITIVE", "A+" -> A_POSITIVE;
+                case "A_NEGATIVE", "A-" -> A_NEGATIVE;
+                case "B_POSITIVE", "B+" -> B_POSITIVE;
+                case "B_NEGATIVE", "B-" -> B_NEGATIVE;
+                case "AB_POSITIVE", "AB+" -> AB_POSITIVE;
+                case "AB_NEGATIVE", "AB-" -> AB_NEGATIVE;
+                default -> null;
+            };
+        }
     }
 
     public enum UrgencyLevel {
@@ -126,8 +171,32 @@ public class BloodRequest {
         return deadlineTimestamp != null && LocalDateTime.now().isAfter(deadlineTimestamp);
     }
 
+    /**
+     * Donors needed to cover the requested units, one unit per donation
+     */
+    public int getDonorsNeeded() {
+        return unitsRequired != null ? (int) Math.ceil(unitsRequired) : 1;
+    }
+
     public int getRemainingMinutes() {
         if (deadlineTimestamp == null) return 0;
-        return (int) ((deadlineTimestamp.getTime() - System.currentTimeMillis()) / 60000);
+        return (int) Duration.between(LocalDateTime.now(), deadlineTimestamp).toMinutes();
+    }
+
+    // Persistable
+    @Override
+    public String getId() {
+        return requestId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
     }
 }
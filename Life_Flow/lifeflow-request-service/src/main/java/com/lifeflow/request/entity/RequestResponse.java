@@ -85,6 +85,10 @@ public class RequestResponse {
     @Column(name = "matched_score")
     private Integer matchedScore;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     public enum ResponseStatus {
         PENDING, ACCEPTED, REJECTED, NO_RESPONSE, CANCELLED
     }
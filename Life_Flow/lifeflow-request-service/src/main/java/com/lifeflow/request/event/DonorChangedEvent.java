@@ -0,0 +1,51 @@
+package com.lifeflow.request.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.lifeflow.request.dto.MatchedDonorDTO;
+import lombok.*;
+
+/**
+ * Donor registration, donation and eligibility events consumed from the
+ * lifeflow.events exchange to keep the local eligible-donor index current
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class DonorChangedEvent {
+
+    private String donorId;
+    private String donorName;
+    private String bloodType;
+    private String phoneNumber;
+    private Integer age;
+    private Double weight;
+    private String donorLocation;
+    private Boolean eligible;
+    private Boolean isOnline;
+    private Long totalDonations;
+    private String lastDonationDate;
+    private Integer reliabilityScore;
+    private Integer totalPoints;
+    private String badgeLevel;
+
+    public MatchedDonorDTO toMatchedDonor() {
+        return MatchedDonorDTO.builder()
+                .donorId(donorId)
+                .donorName(donorName)
+                .bloodType(bloodType)
+                .phoneNumber(phoneNumber)
+                .age(age)
+                .weight(weight)
+                .donorLocation(donorLocation)
+                .reliabilityScore(reliabilityScore)
+                .isOnline(isOnline)
+                .totalDonations(totalDonations)
+                .lastDonationDate(lastDonationDate)
+                .totalPoints(totalPoints)
+                .badgeLevel(badgeLevel)
+                .build();
+    }
+}
@@ -0,0 +1,54 @@
+package com.lifeflow.request.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lifeflow.request.service.EligibleDonorIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies donor events from the lifeflow.events exchange to the local
+ * eligible-donor index. Each instance binds its own auto-delete queue,
+ * since every instance keeps its own copy of the index.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DonorEventListener {
+
+    private final EligibleDonorIndex donorIndex;
+    private final ObjectMapper objectMapper;
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(autoDelete = "true", exclusive = "true"),
+            exchange = @Exchange(value = "lifeflow.events", type = "topic"),
+            key = {"event.donor_registered", "event.donation_completed", "event.donor_eligibility_changed"}))
+    public void onDonorEvent(String payload,
+                             @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+        try {
+            DonorChangedEvent event = objectMapper.readValue(payload, DonorChangedEvent.class);
+
+            // A completed donation starts the deferral period, so the donor
+            // leaves the index until an eligibility event brings them back
+            boolean eligible = !"event.donation_completed".equals(routingKey)
+                    && !Boolean.FALSE.equals(event.getEligible());
+
+            if (eligible) {
+                donorIndex.upsert(event.toMatchedDonor());
+            } else {
+                donorIndex.remove(event.getDonorId());
+            }
+
+            log.debug("Applied {} for donor: {} - eligible: {}", routingKey, event.getDonorId(), eligible);
+
+        } catch (Exception e) {
+            log.error("Failed to apply donor event: {}", routingKey, e);
+        }
+    }
+}
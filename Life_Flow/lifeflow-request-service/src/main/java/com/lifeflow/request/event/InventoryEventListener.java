@@ -0,0 +1,71 @@
+package com.lifeflow.request.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lifeflow.request.entity.BloodRequest;
+import com.lifeflow.request.service.MatchResultCache;
+import com.lifeflow.request.service.StockSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reacts to stock changes broadcast by inventory-service. Each instance
+ * binds its own auto-delete queue, since the state it updates is local.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryEventListener {
+
+    private final MatchResultCache matchResultCache;
+    private final StockSnapshot stockSnapshot;
+    private final ObjectMapper objectMapper;
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(autoDelete = "true", exclusive = "true"),
+            exchange = @Exchange(value = "lifeflow.events", type = "topic"),
+            key = {"event.stock.low", "event.blood.reserved", "event.blood.released"}))
+    public void onStockEvent(String payload,
+                             @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+        try {
+            StockChangedEvent event = objectMapper.readValue(payload, StockChangedEvent.class);
+            BloodRequest.BloodType bloodType = BloodRequest.BloodType.parse(event.getBloodType());
+            if (bloodType == null) {
+                log.warn("Ignoring {} with unknown blood type: {}", routingKey, event.getBloodType());
+                return;
+            }
+
+            applyToSnapshot(bloodType, routingKey, event);
+
+            // Stock decides whether matching returns donors at all
+            matchResultCache.invalidateBloodType(bloodType);
+
+            log.debug("Applied {} for blood type: {}", routingKey, bloodType);
+
+        } catch (Exception e) {
+            log.error("Failed to apply stock event: {}", routingKey, e);
+        }
+    }
+
+    /**
+     * Events carrying the resulting level set it outright; reservations and
+     * releases without one are applied as deltas to the known level
+     */
+    private void applyToSnapshot(BloodRequest.BloodType bloodType, String routingKey, StockChangedEvent event) {
+        if (event.getAvailableUnits() != null) {
+            stockSnapshot.update(bloodType, event.getAvailableUnits(), event.getThresholdUnits());
+        } else if (event.getUnits() != null && "event.blood.reserved".equals(routingKey)) {
+            stockSnapshot.adjust(bloodType, -event.getUnits(), event.getThresholdUnits());
+        } else if (event.getUnits() != null && "event.blood.released".equals(routingKey)) {
+            stockSnapshot.adjust(bloodType, event.getUnits(), event.getThresholdUnits());
+        } else {
+            stockSnapshot.invalidate(bloodType);
+        }
+    }
+}
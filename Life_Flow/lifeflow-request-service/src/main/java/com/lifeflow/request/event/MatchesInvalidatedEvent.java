@@ -0,0 +1,24 @@
+package com.lifeflow.request.event;
+
+import com.lifeflow.request.entity.BloodRequest;
+import lombok.*;
+
+/**
+ * In-process notification that cached rankings went stale, either for a
+ * single request or for every request needing a blood type
+ */
+@Getter
+@AllArgsConstructor
+public class MatchesInvalidatedEvent {
+
+    private final String requestId;
+    private final BloodRequest.BloodType bloodType;
+
+    public static MatchesInvalidatedEvent forRequest(String requestId) {
+        return new MatchesInvalidatedEvent(requestId, null);
+    }
+
+    public static MatchesInvalidatedEvent forBloodType(BloodRequest.BloodType bloodType) {
+        return new MatchesInvalidatedEvent(null, bloodType);
+    }
+}
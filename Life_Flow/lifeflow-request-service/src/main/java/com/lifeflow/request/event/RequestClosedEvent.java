@@ -0,0 +1,28 @@
+package com.lifeflow.request.event;
+
+import com.lifeflow.common.event.DomainEvent;
+import com.lifeflow.request.entity.BloodRequest;
+import lombok.*;
+
+/**
+ * Notification that a request reached a terminal status and will get no
+ * further matches. Published in-process after commit, and queued in the
+ * outbox so other instances can drop their cached matches.
+ */
+@Getter
+@AllArgsConstructor
+public class RequestClosedEvent extends DomainEvent {
+
+    private final String requestId;
+    private final BloodRequest.RequestStatus status;
+
+    @Override
+    public String getEventType() {
+        return "REQUEST_CLOSED";
+    }
+
+    @Override
+    public String getAggregateId() {
+        return requestId;
+    }
+}
@@ -0,0 +1,22 @@
+package com.lifeflow.request.event;
+
+import com.lifeflow.request.entity.BloodRequest;
+import lombok.*;
+
+/**
+ * In-process notification that a request is close to its deadline
+ * (ESCALATED) or has just been moved to EXPIRED
+ */
+@Getter
+@AllArgsConstructor
+public class RequestDeadlineEvent {
+
+    private final String requestId;
+    private final Type type;
+    private final BloodRequest.BloodType bloodType;
+    private final BloodRequest.UrgencyLevel urgencyLevel;
+
+    public enum Type {
+        ESCALATED, EXPIRED
+    }
+}
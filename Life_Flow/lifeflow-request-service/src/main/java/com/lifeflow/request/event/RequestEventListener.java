@@ -0,0 +1,50 @@
+package com.lifeflow.request.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lifeflow.request.service.MatchResultCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.Exchange;
+import org.springframework.amqp.rabbit.annotation.Queue;
+import org.springframework.amqp.rabbit.annotation.QueueBinding;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached match results when any instance accepts a donor for, or
+ * closes, a request. Each instance binds its own auto-delete queue, since
+ * the cache it clears is local.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RequestEventListener {
+
+    private final MatchResultCache matchResultCache;
+    private final ObjectMapper objectMapper;
+
+    @RabbitListener(bindings = @QueueBinding(
+            value = @Queue(autoDelete = "true", exclusive = "true"),
+            exchange = @Exchange(value = "lifeflow.events", type = "topic"),
+            key = {"event.donor_accepted", "event.request_closed"}))
+    public void onRequestEvent(String payload,
+                               @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
+        try {
+            // Both events carry the request id; nothing else is needed here
+            String requestId = objectMapper.readTree(payload).path("requestId").asText(null);
+            if (requestId == null) {
+                log.warn("Ignoring {} without a request id", routingKey);
+                return;
+            }
+
+            matchResultCache.invalidate(requestId);
+
+            log.debug("Applied {} for request: {}", routingKey, requestId);
+
+        } catch (Exception e) {
+            log.error("Failed to apply request event: {}", routingKey, e);
+        }
+    }
+}
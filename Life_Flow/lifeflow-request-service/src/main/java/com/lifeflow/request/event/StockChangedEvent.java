@@ -0,0 +1,22 @@
+package com.lifeflow.request.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.*;
+
+/**
+ * Stock level events (low stock, reservation, release) consumed from
+ * inventory-service on the lifeflow.events exchange
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StockChangedEvent {
+
+    private String bloodType;
+    private Double units;
+    private Double availableUnits;
+    private Double thresholdUnits;
+}
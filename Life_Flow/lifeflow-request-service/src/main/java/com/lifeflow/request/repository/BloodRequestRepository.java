@@ -1,14 +1,24 @@
 package com.lifeflow.request.repository;
 
+import com.lifeflow.common.id.IdGenerator;
 import com.lifeflow.request.entity.BloodRequest;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BloodRequestRepository extends JpaRepository<BloodRequest, String> {
@@ -18,6 +28,53 @@ public interface BloodRequestRepository extends JpaRepository<BloodRequest, Stri
      */
     List<BloodRequest> findByStatusIn(List<BloodRequest.RequestStatus> statuses);
 
+    /**
+     * Request summaries in the given statuses, ordered by (status,
+     * deadlineTimestamp, requestId); also the first keyset page
+     */
+    @Query(RequestSummary.SELECT + "WHERE br.status IN :statuses " +
+           "ORDER BY br.status, br.deadlineTimestamp, br.requestId")
+    List<RequestSummary> findSummariesByStatusIn(@Param("statuses") List<BloodRequest.RequestStatus> statuses,
+                                                 Pageable page);
+
+    /**
+     * Next keyset page after the given (status, deadline, requestId) position
+     */
+    @Query(RequestSummary.SELECT + "WHERE br.status IN :statuses " +
+           "AND (br.status, br.deadlineTimestamp, br.requestId) > (:status, :deadline, :requestId) " +
+           "ORDER BY br.status, br.deadlineTimestamp, br.requestId")
+    List<RequestSummary> findSummaryPageAfter(@Param("statuses") List<BloodRequest.RequestStatus> statuses,
+                                              @Param("status") BloodRequest.RequestStatus status,
+                                              @Param("deadline") LocalDateTime deadline,
+                                              @Param("requestId") String requestId,
+                                              Pageable page);
+
+    /**
+     * Stream request summaries in the given statuses from a server-side
+     * cursor. Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(RequestSummary.SELECT + "WHERE br.status IN :statuses " +
+           "ORDER BY br.status, br.deadlineTimestamp, br.requestId")
+    Stream<RequestSummary> streamSummariesByStatusIn(@Param("statuses") List<BloodRequest.RequestStatus> statuses);
+
+    /**
+     * Summaries of active requests for a hospital
+     */
+    @Query(RequestSummary.SELECT + "WHERE br.hospitalId = :hospitalId " +
+           "AND br.status IN ('PENDING', 'MATCHED', 'ACCEPTED') ORDER BY br.deadlineTimestamp")
+    List<RequestSummary> findActiveSummariesByHospitalId(@Param("hospitalId") String hospitalId);
+
+    /**
+     * Summaries of open critical requests, most urgent deadline first
+     */
+    @Query(RequestSummary.SELECT + "WHERE br.urgencyLevel = 'CRITICAL' " +
+           "AND br.status != 'FULFILLED' AND br.deadlineTimestamp > :now ORDER BY br.deadlineTimestamp")
+    List<RequestSummary> findCriticalSummaries(@Param("now") LocalDateTime now);
+
     /**
      * Find active requests for a hospital
      */
@@ -25,6 +82,29 @@ public interface BloodRequestRepository extends JpaRepository<BloodRequest, Stri
            "AND br.status IN ('PENDING', 'MATCHED', 'ACCEPTED')")
     List<BloodRequest> findActiveByHospitalId(@Param("hospitalId") String hospitalId);
 
+    /**
+     * Count one more accepted donor if the request is still open and short
+     * of donors, moving it to ACCEPTED once enough have accepted. A single
+     * conditional update, so concurrent acceptances cannot overshoot.
+     * Returns rows updated.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BloodRequest br SET br.acceptedDonorCount = br.acceptedDonorCount + 1, " +
+           "br.status = CASE WHEN br.acceptedDonorCount + 1 >= :donorsNeeded THEN 'ACCEPTED' " +
+           "ELSE br.status END, " +
+           "br.updatedAt = :now, br.version = br.version + 1 " +
+           "WHERE br.requestId = :requestId AND br.status IN ('PENDING', 'MATCHED') " +
+           "AND br.acceptedDonorCount < :donorsNeeded")
+    int acceptDonorIfNeeded(@Param("requestId") String requestId,
+                            @Param("donorsNeeded") int donorsNeeded,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Current status of a request
+     */
+    @Query("SELECT br.status FROM BloodRequest br WHERE br.requestId = :requestId")
+    Optional<BloodRequest.RequestStatus> findStatusById(@Param("requestId") String requestId);
+
     /**
      * Find critical requests
      */
@@ -39,6 +119,15 @@ public interface BloodRequestRepository extends JpaRepository<BloodRequest, Stri
            "AND br.status NOT IN ('FULFILLED', 'CANCELLED')")
     List<BloodRequest> findExpiredRequests(@Param("now") LocalDateTime now);
 
+    /**
+     * Deadlines of every request that can still expire, for the expiry wheel
+     */
+    @Query("SELECT br.requestId AS requestId, br.deadlineTimestamp AS deadlineTimestamp " +
+           "FROM BloodRequest br " +
+           "WHERE br.deadlineTimestamp IS NOT NULL " +
+           "AND br.status NOT IN ('FULFILLED', 'CANCELLED', 'EXPIRED')")
+    List<RequestDeadline> findOpenDeadlines();
+
     /**
      * Find requests by blood type and status
      */
@@ -47,8 +136,36 @@ public interface BloodRequestRepository extends JpaRepository<BloodRequest, Stri
             BloodRequest.RequestStatus status);
 
     /**
-     * Find requests created in last N hours
+     * Find requests created in last N hours.
+     * The id lower bound lets Postgres prune the request_id range partitions;
+     * it is taken a minute early since ids are minted just before createdAt is set.
+     */
+    default List<BloodRequest> findRecentRequests(LocalDateTime fromTime) {
+        Instant idFrom = fromTime.minusMinutes(1).atZone(ZoneId.systemDefault()).toInstant();
+        return findRecentRequests(IdGenerator.lowerBound("req-", idFrom), fromTime);
+    }
+
+    @Query("SELECT br FROM BloodRequest br WHERE br.requestId >= :fromId AND br.createdAt > :fromTime")
+    List<BloodRequest> findRecentRequests(@Param("fromId") String fromId,
+                                          @Param("fromTime") LocalDateTime fromTime);
+
+    /**
+     * Create the monthly partitions for [fromMonth, fromMonth + months).
+     * Returns partitions created.
+     */
+    @Query(value = "SELECT lifeflow_create_request_partitions(:fromMonth, :months)", nativeQuery = true)
+    int createMonthlyPartitions(@Param("fromMonth") LocalDate fromMonth, @Param("months") int months);
+
+    /**
+     * Move months older than {@code keepMonths} with no open requests to
+     * the archive tables. Returns requests moved.
      */
-    @Query("SELECT br FROM BloodRequest br WHERE br.createdAt > :fromTime")
-    List<BloodRequest> findRecentRequests(@Param("fromTime") LocalDateTime fromTime);
+    @Query(value = "SELECT lifeflow_archive_request_partitions(:keepMonths, :tablespace)", nativeQuery = true)
+    int archivePartitions(@Param("keepMonths") int keepMonths, @Param("tablespace") String tablespace);
+
+    interface RequestDeadline {
+        String getRequestId();
+
+        LocalDateTime getDeadlineTimestamp();
+    }
 }
@@ -0,0 +1,35 @@
+package com.lifeflow.request.repository;
+
+import com.lifeflow.request.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Find a caller's record for a key within an operation scope
+     */
+    Optional<IdempotencyRecord> findByScopeAndCallerAndIdempotencyKey(String scope, String caller,
+                                                                       String idempotencyKey);
+
+    /**
+     * Release an in-progress claim whose call failed, so it can be retried
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord ir WHERE ir.recordId = :recordId AND ir.status = 'IN_PROGRESS'")
+    int deleteInProgress(@Param("recordId") String recordId);
+
+    /**
+     * Delete records past their expiry
+     */
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord ir WHERE ir.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
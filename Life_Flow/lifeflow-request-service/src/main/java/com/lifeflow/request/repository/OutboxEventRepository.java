@@ -0,0 +1,36 @@
+package com.lifeflow.request.repository;
+
+import com.lifeflow.request.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, String> {
+
+    /**
+     * Lock the oldest unpublished events, skipping rows another relay
+     * instance already holds
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE published_at IS NULL " +
+                   "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<OutboxEvent> lockUnpublishedBatch(@Param("limit") int limit);
+
+    /**
+     * Count events still waiting to be published
+     */
+    long countByPublishedAtIsNull();
+
+    /**
+     * Delete published events older than the retention cutoff
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent oe WHERE oe.publishedAt < :cutoff")
+    int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -2,6 +2,7 @@ package com.lifeflow.request.repository;
 
 import com.lifeflow.request.entity.RequestResponse;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -18,6 +19,26 @@ public interface RequestResponseRepository extends JpaRepository<RequestResponse
      */
     List<RequestResponse> findByRequest_RequestId(String requestId);
 
+    /**
+     * Load a response together with its request in one query
+     */
+    @Query("SELECT rr FROM RequestResponse rr JOIN FETCH rr.request WHERE rr.responseId = :responseId")
+    Optional<RequestResponse> findWithRequestById(@Param("responseId") String responseId);
+
+    /**
+     * Accept a response only if it is still pending; returns rows updated
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE RequestResponse rr SET rr.responseStatus = 'ACCEPTED', " +
+           "rr.confirmedByDonorAt = :now, rr.scheduledPickupTime = :pickupTime, " +
+           "rr.donorCanArriveInMinutes = :arrivalMinutes, rr.responseUpdatedAt = :now, " +
+           "rr.version = rr.version + 1 " +
+           "WHERE rr.responseId = :responseId AND rr.responseStatus = 'PENDING'")
+    int acceptIfPending(@Param("responseId") String responseId,
+                        @Param("arrivalMinutes") Integer arrivalMinutes,
+                        @Param("pickupTime") LocalDateTime pickupTime,
+                        @Param("now") LocalDateTime now);
+
     /**
      * Find accepted responses for a request
      */
@@ -46,7 +67,8 @@ public interface RequestResponseRepository extends JpaRepository<RequestResponse
                                    @Param("status") RequestResponse.ResponseStatus status);
 
     /**
-     * Find responses created within time range
+     * Find responses created within time range.
+     * response_created_at is the partition key, so only the months in range are scanned.
      */
     @Query("SELECT rr FROM RequestResponse rr WHERE rr.responseCreatedAt BETWEEN :from AND :to")
     List<RequestResponse> findByTimeRange(@Param("from") LocalDateTime from,
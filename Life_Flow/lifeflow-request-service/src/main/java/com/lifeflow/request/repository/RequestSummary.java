@@ -0,0 +1,34 @@
+package com.lifeflow.request.repository;
+
+import com.lifeflow.request.entity.BloodRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns needed by request list and dashboard views. Selected directly,
+ * so listings never load patient details, notes or audit timestamps.
+ */
+public interface RequestSummary {
+
+    /**
+     * JPQL select list matching this projection, for queries on {@code br}
+     */
+    String SELECT = "SELECT br.requestId AS requestId, br.hospitalId AS hospitalId, " +
+            "br.bloodTypeNeeded AS bloodTypeNeeded, br.unitsRequired AS unitsRequired, " +
+            "br.urgencyLevel AS urgencyLevel, br.status AS status, " +
+            "br.deadlineTimestamp AS deadlineTimestamp FROM BloodRequest br ";
+
+    String getRequestId();
+
+    String getHospitalId();
+
+    BloodRequest.BloodType getBloodTypeNeeded();
+
+    Double getUnitsRequired();
+
+    BloodRequest.UrgencyLevel getUrgencyLevel();
+
+    BloodRequest.RequestStatus getStatus();
+
+    LocalDateTime getDeadlineTimestamp();
+}
@@ -0,0 +1,275 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.entity.BloodRequest;
+import com.lifeflow.request.entity.BloodRequest.RequestStatus;
+import com.lifeflow.request.repository.BloodRequestRepository;
+import com.lifeflow.request.repository.RequestSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+
+/**
+ * In-memory view of every non-terminal request, indexed by status, hospital,
+ * blood type and deadline, so dashboard reads never touch the database.
+ *
+ * RequestService and the expiry scheduler write through to it on every
+ * mutation. It is rebuilt from the database at startup and every
+ * {@code requests.active-view.resync-interval-ms} to pick up changes made
+ * by other instances. Until the first rebuild completes, callers fall back
+ * to the repository.
+ *
+ * Writers are serialized; readers are lock-free and re-check each indexed
+ * id against the primary map, so they never see a stale entry under a new
+ * index key.
+ */
+@Slf4j
+@Component
+public class ActiveRequestView {
+
+    private static final Set<RequestStatus> TERMINAL = EnumSet.of(
+            RequestStatus.FULFILLED, RequestStatus.CANCELLED, RequestStatus.EXPIRED);
+
+    private static final List<RequestStatus> OPEN = List.copyOf(EnumSet.complementOf(EnumSet.copyOf(TERMINAL)));
+
+    private static final Comparator<Entry> BY_DEADLINE = Comparator
+            .comparing(Entry::deadlineTimestamp, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Entry::requestId);
+
+    private static final Comparator<Entry> BY_LISTING_ORDER = Comparator
+            .comparing((Entry entry) -> entry.status().name())
+            .thenComparing(BY_DEADLINE);
+
+    private final BloodRequestRepository requestRepository;
+    private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<RequestStatus, Set<String>> byStatus = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> byHospital = new ConcurrentHashMap<>();
+    private final Map<BloodRequest.BloodType, Set<String>> byBloodType = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byDeadline = new ConcurrentSkipListSet<>(BY_DEADLINE);
+    private final Map<String, Long> writtenAt = new HashMap<>();
+    private long writeSequence;
+    private volatile boolean ready;
+
+    public ActiveRequestView(BloodRequestRepository requestRepository) {
+        this.requestRepository = requestRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Requests in any of the given statuses, ordered by status, deadline and id
+     */
+    public List<RequestSummary> findByStatusIn(Set<RequestStatus> statuses) {
+        List<Entry> result = new ArrayList<>();
+        for (RequestStatus status : statuses) {
+            collect(byStatus.get(status), entry -> entry.status() == status, result);
+        }
+        result.sort(BY_LISTING_ORDER);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Requests of a hospital in any of the given statuses, earliest deadline first
+     */
+    public List<RequestSummary> findByHospital(String hospitalId, Set<RequestStatus> statuses) {
+        List<Entry> result = new ArrayList<>();
+        collect(byHospital.get(hospitalId),
+                entry -> entry.hospitalId().equals(hospitalId) && statuses.contains(entry.status()), result);
+        result.sort(BY_DEADLINE);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Requests needing a blood type, earliest deadline first
+     */
+    public List<RequestSummary> findByBloodType(BloodRequest.BloodType bloodType) {
+        List<Entry> result = new ArrayList<>();
+        collect(byBloodType.get(bloodType), entry -> entry.bloodTypeNeeded() == bloodType, result);
+        result.sort(BY_DEADLINE);
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Open CRITICAL requests whose deadline is still ahead, earliest first
+     */
+    public List<RequestSummary> findCritical(LocalDateTime now) {
+        List<RequestSummary> result = new ArrayList<>();
+        Entry from = new Entry("", null, null, null, null, null, now);
+        for (Entry entry : byDeadline.tailSet(from, false)) {
+            if (entry.deadlineTimestamp() == null) break;
+            if (entry.urgencyLevel() == BloodRequest.UrgencyLevel.CRITICAL
+                    && entry.status() != RequestStatus.FULFILLED
+                    && byId.get(entry.requestId()) == entry) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record the current state of a request, dropping it once terminal
+     */
+    public synchronized void upsert(BloodRequest request) {
+        writtenAt.put(request.getRequestId(), ++writeSequence);
+        if (TERMINAL.contains(request.getStatus())) {
+            unindex(request.getRequestId());
+            return;
+        }
+        index(Entry.of(request));
+    }
+
+    public synchronized void remove(String requestId) {
+        writtenAt.put(requestId, ++writeSequence);
+        unindex(requestId);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Reload every non-terminal request from the database. Requests written
+     * through while the query ran keep their newer in-memory state.
+     */
+    @Scheduled(initialDelay = 0,
+               fixedDelayString = "${requests.active-view.resync-interval-ms:60000}")
+    public void rebuild() {
+        try {
+            long startSequence;
+            synchronized (this) {
+                startSequence = writeSequence;
+            }
+            List<RequestSummary> summaries = requestRepository.findSummariesByStatusIn(OPEN, Pageable.unpaged());
+
+            synchronized (this) {
+                Set<String> stale = new HashSet<>(byId.keySet());
+                for (RequestSummary summary : summaries) {
+                    stale.remove(summary.getRequestId());
+                    if (!writtenSince(summary.getRequestId(), startSequence)) index(Entry.of(summary));
+                }
+                stale.removeIf(requestId -> writtenSince(requestId, startSequence));
+                stale.forEach(this::unindex);
+                writtenAt.values().removeIf(sequence -> sequence <= startSequence);
+                ready = true;
+            }
+
+            log.debug("Active request view rebuilt with {} requests", summaries.size());
+        } catch (Exception e) {
+            log.error("Active request view rebuild failed, keeping {} cached requests", byId.size(), e);
+        }
+    }
+
+    private boolean writtenSince(String requestId, long sequence) {
+        Long written = writtenAt.get(requestId);
+        return written != null && written > sequence;
+    }
+
+    private void index(Entry entry) {
+        unindex(entry.requestId());
+
+        byId.put(entry.requestId(), entry);
+        byStatus.computeIfAbsent(entry.status(), key -> ConcurrentHashMap.newKeySet()).add(entry.requestId());
+        byHospital.computeIfAbsent(entry.hospitalId(), key -> ConcurrentHashMap.newKeySet()).add(entry.requestId());
+        byBloodType.computeIfAbsent(entry.bloodTypeNeeded(), key -> ConcurrentHashMap.newKeySet())
+                .add(entry.requestId());
+        byDeadline.add(entry);
+    }
+
+    private void unindex(String requestId) {
+        Entry entry = byId.remove(requestId);
+        if (entry == null) return;
+
+        removeFrom(byStatus, entry.status(), requestId);
+        removeFrom(byHospital, entry.hospitalId(), requestId);
+        removeFrom(byBloodType, entry.bloodTypeNeeded(), requestId);
+        byDeadline.remove(entry);
+    }
+
+    private void collect(Set<String> ids, Predicate<Entry> matches, List<Entry> result) {
+        if (ids == null) return;
+        for (String requestId : ids) {
+            Entry entry = byId.get(requestId);
+            if (entry != null && matches.test(entry)) result.add(entry);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<String>> index, K key, String requestId) {
+        if (key == null) return;
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(requestId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Immutable snapshot of the listing columns of one request
+     */
+    private record Entry(String requestId, String hospitalId, BloodRequest.BloodType bloodTypeNeeded,
+                         Double unitsRequired, BloodRequest.UrgencyLevel urgencyLevel,
+                         RequestStatus status, LocalDateTime deadlineTimestamp) implements RequestSummary {
+
+        static Entry of(BloodRequest request) {
+            return new Entry(request.getRequestId(), request.getHospitalId(), request.getBloodTypeNeeded(),
+                    request.getUnitsRequired(), request.getUrgencyLevel(), request.getStatus(),
+                    request.getDeadlineTimestamp());
+        }
+
+        static Entry of(RequestSummary summary) {
+            return new Entry(summary.getRequestId(), summary.getHospitalId(), summary.getBloodTypeNeeded(),
+                    summary.getUnitsRequired(), summary.getUrgencyLevel(), summary.getStatus(),
+                    summary.getDeadlineTimestamp());
+        }
+
+        @Override
+        public String getRequestId() {
+            return requestId;
+        }
+
+        @Override
+        public String getHospitalId() {
+            return hospitalId;
+        }
+
+        @Override
+        public BloodRequest.BloodType getBloodTypeNeeded() {
+            return bloodTypeNeeded;
+        }
+
+        @Override
+        public Double getUnitsRequired() {
+            return unitsRequired;
+        }
+
+        @Override
+        public BloodRequest.UrgencyLevel getUrgencyLevel() {
+            return urgencyLevel;
+        }
+
+        @Override
+        public RequestStatus getStatus() {
+            return status;
+        }
+
+        @Override
+        public LocalDateTime getDeadlineTimestamp() {
+            return deadlineTimestamp;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.entity.BloodRequest.BloodType;
+
+/**
+ * Red cell ABO/Rh compatibility, precomputed into an 8x8 score table
+ * indexed by [recipient.ordinal()][donor.ordinal()].
+ *
+ * Scores (0-40 points):
+ *   40 - exact match
+ *   35 - compatible, same Rh (e.g. O- to A-, O+ to AB+)
+ *   30 - compatible Rh-negative donor for an Rh-positive recipient
+ *        (ranked lower to preserve scarce negative donors)
+ *    0 - incompatible, must not be matched
+ */
+public final class BloodCompatibility {
+
+    public static final int EXACT_MATCH = 40;
+    public static final int COMPATIBLE = 35;
+    public static final int COMPATIBLE_RH_NEGATIVE = 30;
+    public static final int INCOMPATIBLE = 0;
+
+    private static final BloodType[] TYPES = BloodType.values();
+    private static final int[][] SCORES = new int[TYPES.length][TYPES.length];
+
+    static {
+        for (BloodType recipient : TYPES) {
+            for (BloodType donor : TYPES) {
+                SCORES[recipient.ordinal()][donor.ordinal()] = computeScore(recipient, donor);
+            }
+        }
+    }
+
+    private BloodCompatibility() {
+    }
+
+    /**
+     * Compatibility score of a donor for a recipient; 0 when either is unknown
+     */
+    public static int score(BloodType recipient, BloodType donor) {
+        if (recipient == null || donor == null) return INCOMPATIBLE;
+        return SCORES[recipient.ordinal()][donor.ordinal()];
+    }
+
+    public static boolean isCompatible(BloodType recipient, BloodType donor) {
+        return score(recipient, donor) > INCOMPATIBLE;
+    }
+
+    private static int computeScore(BloodType recipient, BloodType donor) {
+        if (recipient == donor) return EXACT_MATCH;
+
+        // Donor red cells must carry no ABO antigen the recipient lacks
+        int donorAntigens = aboAntigens(donor);
+        if ((donorAntigens & ~aboAntigens(recipient)) != 0) return INCOMPATIBLE;
+
+        // Rh-positive cells only go to Rh-positive recipients
+        boolean donorPositive = isRhPositive(donor);
+        boolean recipientPositive = isRhPositive(recipient);
+        if (donorPositive && !recipientPositive) return INCOMPATIBLE;
+
+        return donorPositive == recipientPositive ? COMPATIBLE : COMPATIBLE_RH_NEGATIVE;
+    }
+
+    /**
+     * ABO antigens as bits: A = 1, B = 2
+     */
+    private static int aboAntigens(BloodType type) {
+        return switch (type) {
+            case O_POSITIVE, O_NEGATIVE -> 0;
+            case A_POSITIVE, A_NEGATIVE -> 1;
+            case B_POSITIVE, B_NEGATIVE -> 2;
+            case AB_POSITIVE, AB_NEGATIVE -> 3;
+        };
+    }
+
+    private static boolean isRhPositive(BloodType type) {
+        return switch (type) {
+            case O_POSITIVE, A_POSITIVE, B_POSITIVE, AB_POSITIVE -> true;
+            case O_NEGATIVE, A_NEGATIVE, B_NEGATIVE, AB_NEGATIVE -> false;
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package com.lifeflow.request.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded LRU-style cache of geolocation-service distances.
+ *
+ * Keys are origin/destination pairs with coordinates rounded to
+ * {@code matching.distance-cache.precision-digits} decimal places
+ * (3 digits is roughly 100 m), so repeat matches for the same hospital
+ * and donors skip the remote call. Hit, miss and eviction counts are
+ * exported as the "geoDistance" cache metrics.
+ */
+@Component
+public class DistanceCache {
+
+    private final Cache<Key, Double> cache;
+    private final double scale;
+
+    public DistanceCache(MeterRegistry meterRegistry,
+                         @Value("${matching.distance-cache.precision-digits:3}") int precisionDigits,
+                         @Value("${matching.distance-cache.max-size:200000}") long maxSize,
+                         @Value("${matching.distance-cache.ttl-minutes:1440}") long ttlMinutes) {
+        this.scale = Math.pow(10, precisionDigits);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "geoDistance");
+    }
+
+    /**
+     * Cache key for a pair of {lat, lon} coordinates, or null if either is missing
+     */
+    public Key keyOf(double[] origin, double[] destination) {
+        if (origin == null || destination == null) return null;
+        return new Key(quantize(origin), quantize(destination));
+    }
+
+    public Double get(Key key) {
+        return key != null ? cache.getIfPresent(key) : null;
+    }
+
+    public void put(Key key, Double distanceKm) {
+        if (key != null && distanceKm != null) {
+            cache.put(key, distanceKm);
+        }
+    }
+
+    private long quantize(double[] location) {
+        int latitude = (int) Math.round(location[0] * scale);
+        int longitude = (int) Math.round(location[1] * scale);
+        return ((long) latitude << 32) | (longitude & 0xffffffffL);
+    }
+
+    public record Key(long origin, long destination) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.AssignmentResultDTO;
+import com.lifeflow.request.dto.MatchResultDTO;
+import com.lifeflow.request.dto.MatchedDonorDTO;
+import com.lifeflow.request.entity.BloodRequest;
+import com.lifeflow.request.repository.BloodRequestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Global donor assignment across concurrent requests.
+ *
+ * Ranking each request on its own puts the same nearby donors at the top
+ * of every list. This engine takes every PENDING request, builds
+ * (request, donor) edges from each request's local candidate ranking, and
+ * assigns greedily by weight over all edges at once, heaviest first, so
+ * each donor goes to at most one request. Weight is the match score scaled
+ * up by urgency and by how close the request is to its deadline.
+ *
+ * The result is published to DonorReservations, which matching consults
+ * so that a donor assigned to one request is left out of the rankings,
+ * and therefore the notifications, of competing requests.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DonorAssignmentEngine {
+
+    private final BloodRequestRepository requestRepository;
+    private final MatchingEngine matchingEngine;
+    private final DonorReservations donorReservations;
+    private final MatchResultCache matchResultCache;
+
+    @Value("${matching.assignment.candidates-per-request:30}")
+    private int candidatesPerRequest;
+
+    @Value("${matching.assignment.donors-per-unit:2}")
+    private int donorsPerUnit;
+
+    // Requests this close to their deadline get the full deadline boost
+    @Value("${matching.assignment.deadline-horizon-minutes:60}")
+    private int deadlineHorizonMinutes;
+
+    private volatile AssignmentResultDTO lastAssignment;
+
+    public AssignmentResultDTO getLastAssignment() {
+        return lastAssignment;
+    }
+
+    @Scheduled(initialDelayString = "${matching.assignment.interval-ms:60000}",
+               fixedDelayString = "${matching.assignment.interval-ms:60000}")
+    public void scheduledAssignment() {
+        try {
+            assignPendingRequests();
+        } catch (Exception e) {
+            log.error("Scheduled donor assignment failed", e);
+        }
+    }
+
+    /**
+     * Assign donors across every PENDING request and hold them for matching
+     */
+    public AssignmentResultDTO assignPendingRequests() {
+        long start = System.nanoTime();
+
+        List<BloodRequest> requests = requestRepository.findByStatusIn(
+                List.of(BloodRequest.RequestStatus.PENDING));
+
+        Map<String, List<MatchedDonorDTO>> assignments = new LinkedHashMap<>();
+        List<Edge> edges = new ArrayList<>();
+        int[] slots = new int[requests.size()];
+
+        for (int r = 0; r < requests.size(); r++) {
+            BloodRequest request = requests.get(r);
+            slots[r] = donorsPerUnit * (int) Math.ceil(request.getUnitsRequired());
+            assignments.put(request.getRequestId(), new ArrayList<>());
+
+            MatchResultDTO candidates = matchingEngine.findAssignmentCandidates(request, candidatesPerRequest);
+            if (candidates == null) continue;
+
+            double priority = priorityOf(request);
+            for (MatchedDonorDTO donor : candidates.getDonors()) {
+                edges.add(new Edge(r, donor, donor.getFinalMatchScore() * priority));
+            }
+        }
+
+        // One sort over every request's edges: heaviest first, ties to the earlier deadline
+        edges.sort(Comparator.comparingDouble(Edge::weight).reversed()
+                .thenComparing(edge -> requests.get(edge.requestIndex()).getDeadlineTimestamp(),
+                        Comparator.nullsLast(Comparator.naturalOrder())));
+
+        Set<String> takenDonors = new HashSet<>();
+        int assignedDonors = 0;
+        for (Edge edge : edges) {
+            if (slots[edge.requestIndex()] == 0) continue;
+            if (!takenDonors.add(edge.donor().getDonorId())) continue;
+
+            assignments.get(requests.get(edge.requestIndex()).getRequestId()).add(edge.donor());
+            slots[edge.requestIndex()]--;
+            assignedDonors++;
+        }
+
+        List<String> unfilled = new ArrayList<>();
+        for (int r = 0; r < requests.size(); r++) {
+            if (slots[r] > 0) unfilled.add(requests.get(r).getRequestId());
+        }
+
+        // Cached rankings were computed against the previous holds
+        donorReservations.replaceAll(assignments);
+        assignments.keySet().forEach(matchResultCache::invalidate);
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        AssignmentResultDTO result = AssignmentResultDTO.builder()
+                .assignments(assignments)
+                .unfilledRequestIds(unfilled)
+                .requestCount(requests.size())
+                .assignedDonorCount(assignedDonors)
+                .durationMs(durationMs)
+                .completedAt(LocalDateTime.now())
+                .build();
+        lastAssignment = result;
+
+        log.info("Donor assignment: {} requests, {} donors assigned, {} unfilled in {}ms",
+                requests.size(), assignedDonors, unfilled.size(), durationMs);
+
+        return result;
+    }
+
+    /**
+     * Edge weight multiplier: 1 + urgency (0-1) + deadline pressure (0-1)
+     */
+    private double priorityOf(BloodRequest request) {
+        double urgency = request.getUrgencyNumericScore() != null
+                ? request.getUrgencyNumericScore() / 100.0 : 0;
+        double remaining = Math.max(0, request.getRemainingMinutes());
+        double deadlinePressure = Math.max(0, 1 - remaining / Math.max(1, deadlineHorizonMinutes));
+        return 1 + urgency + deadlinePressure;
+    }
+
+    private record Edge(int requestIndex, MatchedDonorDTO donor, double weight) {
+    }
+}
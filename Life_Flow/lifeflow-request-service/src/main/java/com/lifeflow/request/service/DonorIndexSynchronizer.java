@@ -0,0 +1,35 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.MatchedDonorDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Full resync of the eligible-donor index from donor-service, run at
+ * startup and periodically to repair any missed donor events
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DonorIndexSynchronizer {
+
+    private final MatchingEngine.DonorServiceClient donorServiceClient;
+    private final EligibleDonorIndex donorIndex;
+
+    @Scheduled(initialDelay = 0,
+               fixedDelayString = "${matching.donor-index.resync-interval-ms:300000}")
+    public void resync() {
+        try {
+            long startSequence = donorIndex.writeSequence();
+            List<MatchedDonorDTO> donors = donorServiceClient.findAllEligibleDonors();
+            donorIndex.replaceAll(donors, startSequence);
+        } catch (Exception e) {
+            log.error("Eligible donor index resync failed, keeping current index of {} donors",
+                    donorIndex.size(), e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.MatchedDonorDTO;
+import com.lifeflow.request.event.RequestClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Donors held for a request by the last global assignment run.
+ *
+ * Matching skips donors held for a different request, so the same donor
+ * is not ranked, or contacted, for competing requests. Holds are replaced
+ * wholesale by each assignment run and released as soon as their request
+ * closes.
+ */
+@Component
+public class DonorReservations {
+
+    private volatile Map<String, String> requestByDonorId = new ConcurrentHashMap<>();
+
+    /**
+     * True when {@code donorId} is held for a request other than {@code requestId}
+     */
+    public boolean isHeldForOther(String donorId, String requestId) {
+        String holder = requestByDonorId.get(donorId);
+        return holder != null && !holder.equals(requestId);
+    }
+
+    /**
+     * Replace all holds with the donors assigned per request id
+     */
+    public void replaceAll(Map<String, List<MatchedDonorDTO>> assignments) {
+        Map<String, String> holds = new ConcurrentHashMap<>();
+        assignments.forEach((requestId, donors) ->
+                donors.forEach(donor -> holds.put(donor.getDonorId(), requestId)));
+        requestByDonorId = holds;
+    }
+
+    @EventListener
+    public void onRequestClosed(RequestClosedEvent event) {
+        requestByDonorId.values().removeIf(event.getRequestId()::equals);
+    }
+
+    public int size() {
+        return requestByDonorId.size();
+    }
+}
@@ -0,0 +1,101 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.MatchedDonorDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Single-flight front for the inventory and donor-service lookups made by
+ * matching. Concurrent requests for the same blood type and units (e.g. a
+ * burst of O_NEGATIVE requests during a mass-casualty incident) share one
+ * downstream call, and a completed result is reused for
+ * {@code matching.coalescing.freshness-ms}. A call that hangs past
+ * {@code matching.coalescing.max-in-flight-ms} stops being shared.
+ *
+ * Meters:
+ *   lifeflow.matching.downstream.calls      - calls actually sent, by call
+ *   lifeflow.matching.downstream.coalesced  - calls merged into another, by call
+ *   lifeflow.matching.downstream.inflight   - calls currently in flight, by call
+ */
+@Component
+public class DownstreamCallCoalescer {
+
+    private static final String STOCK = "checkStock";
+    private static final String DONORS = "findEligibleDonors";
+
+    private final MatchingEngine.InventoryServiceClient inventoryServiceClient;
+    private final MatchingEngine.DonorServiceClient donorServiceClient;
+    private final SingleFlight<LookupKey, Boolean> stockFlights;
+    private final SingleFlight<LookupKey, List<MatchedDonorDTO>> donorFlights;
+    private final Counter stockCalls;
+    private final Counter stockCoalesced;
+    private final Counter donorCalls;
+    private final Counter donorCoalesced;
+
+    public DownstreamCallCoalescer(MatchingEngine.InventoryServiceClient inventoryServiceClient,
+                                   MatchingEngine.DonorServiceClient donorServiceClient,
+                                   @Qualifier("matchingExecutor") Executor matchingExecutor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${matching.coalescing.freshness-ms:1000}") long freshnessMs,
+                                   @Value("${matching.coalescing.max-in-flight-ms:10000}") long maxInFlightMs) {
+        this.inventoryServiceClient = inventoryServiceClient;
+        this.donorServiceClient = donorServiceClient;
+        this.stockFlights = new SingleFlight<>(matchingExecutor, freshnessMs, maxInFlightMs);
+        this.donorFlights = new SingleFlight<>(matchingExecutor, freshnessMs, maxInFlightMs);
+
+        this.stockCalls = counter(meterRegistry, "lifeflow.matching.downstream.calls", STOCK);
+        this.stockCoalesced = counter(meterRegistry, "lifeflow.matching.downstream.coalesced", STOCK);
+        this.donorCalls = counter(meterRegistry, "lifeflow.matching.downstream.calls", DONORS);
+        this.donorCoalesced = counter(meterRegistry, "lifeflow.matching.downstream.coalesced", DONORS);
+
+        Gauge.builder("lifeflow.matching.downstream.inflight", stockFlights, SingleFlight::inFlight)
+                .tag("call", STOCK)
+                .register(meterRegistry);
+        Gauge.builder("lifeflow.matching.downstream.inflight", donorFlights, SingleFlight::inFlight)
+                .tag("call", DONORS)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<Boolean> checkStock(String bloodType, Double units) {
+        return stockFlights.call(new LookupKey(bloodType, units), () -> {
+            stockCalls.increment();
+            return inventoryServiceClient.checkStock(bloodType, units);
+        }, stockCoalesced::increment);
+    }
+
+    /**
+     * Eligible donors for the blood type. Every caller gets its own donor
+     * copies, since ranking writes scores onto them.
+     */
+    public CompletableFuture<List<MatchedDonorDTO>> findEligibleDonors(String bloodType, Double units) {
+        return donorFlights.call(new LookupKey(bloodType, units), () -> {
+                    donorCalls.increment();
+                    return List.copyOf(donorServiceClient.findEligibleDonors(bloodType, units));
+                }, donorCoalesced::increment)
+                .thenApply(donors -> donors.stream().map(MatchedDonorDTO::copy).toList());
+    }
+
+    @Scheduled(fixedDelayString = "${matching.coalescing.evict-interval-ms:10000}")
+    public void evictStale() {
+        stockFlights.evictStale();
+        donorFlights.evictStale();
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String name, String call) {
+        return Counter.builder(name)
+                .tag("call", call)
+                .register(meterRegistry);
+    }
+
+    private record LookupKey(String bloodType, Double units) {
+    }
+}
@@ -0,0 +1,264 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.MatchedDonorDTO;
+import com.lifeflow.request.entity.BloodRequest.BloodType;
+import com.lifeflow.request.util.GeoUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory read model of eligible donors, bucketed by donor blood type.
+ *
+ * Kept current from donor domain events and periodically resynced in full
+ * from donor-service (see DonorIndexSynchronizer), so matching can read
+ * eligible donors locally instead of calling donor-service per request.
+ *
+ * Within each blood type, donors are also placed on a lat/lon grid of
+ * {@code matching.donor-index.cell-size-degrees} cells so candidates can
+ * be pulled ring by ring outwards from a hospital.
+ */
+@Slf4j
+@Component
+public class EligibleDonorIndex {
+
+    private static final BloodType[] TYPES = BloodType.values();
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final long UNLOCATED = Long.MIN_VALUE;
+
+    private final double cellSizeDegrees;
+
+    private volatile Bucket[] buckets = newBuckets();
+    private volatile Map<String, Placement> placementByDonorId = new ConcurrentHashMap<>();
+    private final Map<String, Long> writtenAt = new HashMap<>();
+    private long writeSequence;
+    private volatile boolean ready;
+
+    public EligibleDonorIndex(
+            @Value("${matching.donor-index.cell-size-degrees:0.05}") double cellSizeDegrees) {
+        this.cellSizeDegrees = cellSizeDegrees;
+    }
+
+    /**
+     * True once the index has been loaded by a full resync
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Eligible donors whose blood type can be given to the recipient.
+     * Returns copies, since matching writes scores into the DTOs.
+     */
+    public List<MatchedDonorDTO> findEligibleDonors(BloodType recipient) {
+        Bucket[] current = buckets;
+        List<MatchedDonorDTO> donors = new ArrayList<>();
+
+        for (BloodType donorType : TYPES) {
+            if (!BloodCompatibility.isCompatible(recipient, donorType)) continue;
+            current[donorType.ordinal()].donors.values().forEach(donor -> donors.add(donor.copy()));
+        }
+
+        return donors;
+    }
+
+    /**
+     * Compatible donors in the square ring of cells {@code ring} steps away
+     * from the cell containing (latitude, longitude); ring 0 is that cell.
+     */
+    public List<MatchedDonorDTO> findEligibleDonorsInRing(BloodType recipient,
+                                                          double latitude, double longitude, int ring) {
+        Bucket[] current = buckets;
+        int centreLat = cellIndex(latitude);
+        int centreLon = cellIndex(longitude);
+        List<MatchedDonorDTO> donors = new ArrayList<>();
+
+        for (BloodType donorType : TYPES) {
+            if (!BloodCompatibility.isCompatible(recipient, donorType)) continue;
+            Map<Long, Map<String, MatchedDonorDTO>> cells = current[donorType.ordinal()].cells;
+
+            for (int dLat = -ring; dLat <= ring; dLat++) {
+                // Inner rows only contribute their two edge cells
+                int step = (dLat == -ring || dLat == ring) ? 1 : Math.max(1, 2 * ring);
+                for (int dLon = -ring; dLon <= ring; dLon += step) {
+                    Map<String, MatchedDonorDTO> cell = cells.get(cellKey(centreLat + dLat, centreLon + dLon));
+                    if (cell != null) {
+                        cell.values().forEach(donor -> donors.add(donor.copy()));
+                    }
+                }
+            }
+        }
+
+        return donors;
+    }
+
+    /**
+     * Compatible donors whose location is missing or unparseable
+     */
+    public List<MatchedDonorDTO> findUnlocatedEligibleDonors(BloodType recipient) {
+        Bucket[] current = buckets;
+        List<MatchedDonorDTO> donors = new ArrayList<>();
+
+        for (BloodType donorType : TYPES) {
+            if (!BloodCompatibility.isCompatible(recipient, donorType)) continue;
+            Map<String, MatchedDonorDTO> cell = current[donorType.ordinal()].cells.get(UNLOCATED);
+            if (cell != null) {
+                cell.values().forEach(donor -> donors.add(donor.copy()));
+            }
+        }
+
+        return donors;
+    }
+
+    /**
+     * Minimum distance (km) from a point at {@code latitude} to any donor
+     * beyond the first {@code rings} rings around its cell
+     */
+    public double distanceCoveredKm(double latitude, int rings) {
+        double cellKm = cellSizeDegrees * KM_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+        return Math.max(0, rings) * cellKm;
+    }
+
+    /**
+     * Add or refresh an eligible donor
+     */
+    public synchronized void upsert(MatchedDonorDTO donor) {
+        BloodType type = donor.getBloodTypeCode();
+        if (donor.getDonorId() == null || type == null) {
+            log.warn("Ignoring donor with missing id or unknown blood type: {}", donor.getDonorId());
+            return;
+        }
+
+        writtenAt.put(donor.getDonorId(), ++writeSequence);
+        place(buckets, placementByDonorId, donor, type);
+    }
+
+    /**
+     * Remove a donor that is no longer eligible
+     */
+    public synchronized void remove(String donorId) {
+        writtenAt.put(donorId, ++writeSequence);
+        Placement placement = placementByDonorId.remove(donorId);
+        if (placement != null) {
+            buckets[placement.type.ordinal()].remove(placement.cellKey, donorId);
+        }
+    }
+
+    /**
+     * Position of the event stream; take it before fetching a snapshot and
+     * pass it to {@link #replaceAll}
+     */
+    public synchronized long writeSequence() {
+        return writeSequence;
+    }
+
+    /**
+     * Replace the whole index with a full snapshot from donor-service that
+     * was requested at {@code startSequence}. Donors upserted or removed by
+     * events since then keep their current state, since the snapshot may
+     * predate those events.
+     */
+    public void replaceAll(List<MatchedDonorDTO> donors, long startSequence) {
+        Bucket[] rebuilt = newBuckets();
+        Map<String, Placement> placements = new ConcurrentHashMap<>();
+
+        synchronized (this) {
+            for (MatchedDonorDTO donor : donors) {
+                BloodType type = donor.getBloodTypeCode();
+                if (donor.getDonorId() == null || type == null) continue;
+                if (writtenSince(donor.getDonorId(), startSequence)) continue;
+                place(rebuilt, placements, donor, type);
+            }
+
+            // Replay event writes made while the snapshot was being fetched
+            Bucket[] current = buckets;
+            writtenAt.forEach((donorId, sequence) -> {
+                if (sequence <= startSequence) return;
+                Placement placement = placementByDonorId.get(donorId);
+                if (placement == null) return;
+                MatchedDonorDTO donor = current[placement.type.ordinal()].donors.get(donorId);
+                if (donor != null) place(rebuilt, placements, donor, placement.type);
+            });
+
+            buckets = rebuilt;
+            placementByDonorId = placements;
+            writtenAt.values().removeIf(sequence -> sequence <= startSequence);
+            ready = true;
+        }
+
+        log.info("Eligible donor index resynced with {} donors", placements.size());
+    }
+
+    public int size() {
+        return placementByDonorId.size();
+    }
+
+    private void place(Bucket[] target, Map<String, Placement> placements,
+                       MatchedDonorDTO donor, BloodType type) {
+        Placement placement = new Placement(type, cellKeyOf(donor));
+        Placement previous = placements.put(donor.getDonorId(), placement);
+        if (previous != null && !previous.equals(placement)) {
+            target[previous.type.ordinal()].remove(previous.cellKey, donor.getDonorId());
+        }
+        target[type.ordinal()].put(placement.cellKey, donor);
+    }
+
+    private boolean writtenSince(String donorId, long sequence) {
+        Long written = writtenAt.get(donorId);
+        return written != null && written > sequence;
+    }
+
+    private long cellKeyOf(MatchedDonorDTO donor) {
+        double[] location = GeoUtils.parseLocation(donor.getDonorLocation());
+        if (location == null) return UNLOCATED;
+        return cellKey(cellIndex(location[0]), cellIndex(location[1]));
+    }
+
+    private int cellIndex(double degrees) {
+        return (int) Math.floor(degrees / cellSizeDegrees);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    private static Bucket[] newBuckets() {
+        Bucket[] buckets = new Bucket[TYPES.length];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+        return buckets;
+    }
+
+    /**
+     * Donors of one blood type, by id and by grid cell
+     */
+    private static final class Bucket {
+
+        private final Map<String, MatchedDonorDTO> donors = new ConcurrentHashMap<>();
+        private final Map<Long, Map<String, MatchedDonorDTO>> cells = new ConcurrentHashMap<>();
+
+        private void put(long cellKey, MatchedDonorDTO donor) {
+            donors.put(donor.getDonorId(), donor);
+            cells.computeIfAbsent(cellKey, key -> new ConcurrentHashMap<>())
+                    .put(donor.getDonorId(), donor);
+        }
+
+        private void remove(long cellKey, String donorId) {
+            donors.remove(donorId);
+            cells.computeIfPresent(cellKey, (key, cell) -> {
+                cell.remove(donorId);
+                return cell.isEmpty() ? null : cell;
+            });
+        }
+    }
+
+    private record Placement(BloodType type, long cellKey) {
+    }
+}
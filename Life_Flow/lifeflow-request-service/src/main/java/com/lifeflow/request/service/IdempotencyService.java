@@ -0,0 +1,271 @@
+package com.lifeflow.request.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lifeflow.common.id.IdGenerator;
+import com.lifeflow.request.entity.IdempotencyRecord;
+import com.lifeflow.request.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for request creation and acceptance.
+ *
+ * The first call with a key claims it in the database, runs, and stores its
+ * response in the same transaction as the work it did. Replays with the
+ * same key and payload get the stored response back, served from a bounded
+ * in-memory cache when possible, without redoing anything. A replay that
+ * arrives while the first call is still running gets 409, and reusing a key
+ * for a different payload gets 422. Claims left behind by a crashed call
+ * lapse after {@code idempotency.in-progress-lease-seconds}. Keys are
+ * scoped to the authenticated caller.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final int MAX_CALLER_LENGTH = 100;
+
+    private final IdempotencyRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final Cache<String, StoredResponse> responses;
+    private final Duration ttl;
+    private final Duration inProgressLease;
+    private final MeterRegistry meterRegistry;
+    private final IdGenerator idGenerator;
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              IdGenerator idGenerator,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.in-progress-lease-seconds:60}") long leaseSeconds,
+                              @Value("${idempotency.cache-size:10000}") long cacheSize) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.inProgressLease = Duration.ofSeconds(leaseSeconds);
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Run {@code action} once per (scope, caller, key), where caller is the
+     * authenticated principal, so one client cannot replay or block another
+     * client's key. Without a key the action simply runs.
+     */
+    public <T> ResponseEntity<T> execute(String scope, String caller, String key, Object payload,
+                                         TypeReference<T> bodyType, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) return action.get();
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        if (caller == null || caller.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED,
+                    HEADER + " requires an authenticated caller");
+        }
+        if (caller.length() > MAX_CALLER_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Caller id must be at most " + MAX_CALLER_LENGTH + " characters");
+        }
+
+        String cacheKey = scope + ":" + caller + ":" + key;
+        String requestHash = hash(payload);
+
+        StoredResponse cached = responses.getIfPresent(cacheKey);
+        if (cached != null) return replay(scope, key, requestHash, cached, bodyType);
+
+        IdempotencyRecord existing = claim(scope, caller, key, requestHash);
+        if (existing != null) {
+            if (!existing.isCompleted()) {
+                record(scope, "conflict");
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "A request with this " + HEADER + " is still being processed");
+            }
+            StoredResponse stored = new StoredResponse(existing.getRequestHash(),
+                    existing.getResponseStatus(), existing.getResponseBody());
+            if (stored.requestHash().equals(requestHash)) responses.put(cacheKey, stored);
+            return replay(scope, key, requestHash, stored, bodyType);
+        }
+
+        return runClaimed(scope, caller, key, requestHash, action);
+    }
+
+    /**
+     * Run the action and store its response in one transaction, so either
+     * both the work and the stored response commit or neither does
+     */
+    private <T> ResponseEntity<T> runClaimed(String scope, String caller, String key, String requestHash,
+                                             Supplier<ResponseEntity<T>> action) {
+        try {
+            StoredResponse[] stored = new StoredResponse[1];
+            ResponseEntity<T> response = transactionTemplate.execute(status -> {
+                ResponseEntity<T> result = action.get();
+                stored[0] = complete(scope, caller, key, requestHash, result);
+                return result;
+            });
+
+            responses.put(scope + ":" + caller + ":" + key, stored[0]);
+            record(scope, "executed");
+            return response;
+
+        } catch (RuntimeException e) {
+            // Release the claim so the client can retry the failed call
+            newTransactionTemplate.executeWithoutResult(status -> recordRepository
+                    .findByScopeAndCallerAndIdempotencyKey(scope, caller, key)
+                    .ifPresent(claim -> recordRepository.deleteInProgress(claim.getRecordId())));
+            throw e;
+        }
+    }
+
+    /**
+     * Claim the key for this call, returning null when claimed or the
+     * existing record when another call got there first
+     */
+    private IdempotencyRecord claim(String scope, String caller, String key, String requestHash) {
+        try {
+            return newTransactionTemplate.execute(status -> {
+                IdempotencyRecord existing = recordRepository
+                        .findByScopeAndCallerAndIdempotencyKey(scope, caller, key).orElse(null);
+                if (existing != null) {
+                    boolean lapsed = !existing.isCompleted()
+                            && existing.getExpiresAt().isBefore(LocalDateTime.now());
+                    if (!lapsed) return existing;
+
+                    log.warn("Taking over lapsed {} claim for {}: {}", scope, HEADER, key);
+                    recordRepository.delete(existing);
+                    recordRepository.flush();
+                }
+
+                recordRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .recordId(idGenerator.nextId("idem-"))
+                        .scope(scope)
+                        .caller(caller)
+                        .idempotencyKey(key)
+                        .requestHash(requestHash)
+                        .status(IdempotencyRecord.Status.IN_PROGRESS)
+                        .expiresAt(LocalDateTime.now().plus(inProgressLease))
+                        .build());
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent call inserted the same key first
+            return recordRepository.findByScopeAndCallerAndIdempotencyKey(scope, caller, key)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+                            "A request with this " + HEADER + " is still being processed"));
+        }
+    }
+
+    private StoredResponse complete(String scope, String caller, String key, String requestHash,
+                                    ResponseEntity<?> response) {
+        IdempotencyRecord claimed = recordRepository.findByScopeAndCallerAndIdempotencyKey(scope, caller, key)
+                .orElseThrow(() -> new RuntimeException("Idempotency claim lost for key: " + key));
+
+        String body = toJson(response.getBody());
+        claimed.setStatus(IdempotencyRecord.Status.COMPLETED);
+        claimed.setResponseStatus(response.getStatusCode().value());
+        claimed.setResponseBody(body);
+        claimed.setExpiresAt(LocalDateTime.now().plus(ttl));
+        recordRepository.save(claimed);
+
+        return new StoredResponse(requestHash, response.getStatusCode().value(), body);
+    }
+
+    private <T> ResponseEntity<T> replay(String scope, String key, String requestHash,
+                                         StoredResponse stored, TypeReference<T> bodyType) {
+        if (!stored.requestHash().equals(requestHash)) {
+            record(scope, "mismatch");
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    HEADER + " was already used for a different request");
+        }
+
+        log.info("Replaying stored {} response for {}: {}", scope, HEADER, key);
+        record(scope, "replayed");
+
+        try {
+            T body = stored.body() != null ? objectMapper.readValue(stored.body(), bodyType) : null;
+            return ResponseEntity.status(stored.status())
+                    .header(REPLAYED_HEADER, "true")
+                    .body(body);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to replay stored response for key: " + key, e);
+        }
+    }
+
+    /**
+     * Delete records past their TTL
+     */
+    @Scheduled(cron = "${idempotency.cleanup-cron:0 45 * * * *}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status ->
+                recordRepository.deleteExpired(LocalDateTime.now()));
+        log.info("Purged {} expired idempotency records", deleted);
+    }
+
+    private String hash(Object payload) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(payload).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize idempotent payload", e);
+        }
+    }
+
+    private void record(String scope, String result) {
+        Counter.builder("lifeflow.idempotency")
+                .description("Idempotency-Key outcomes")
+                .tag("scope", scope)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private record StoredResponse(String requestHash, int status, String body) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.lifeflow.request.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time budget for one matching run, split into absolute deadlines per step.
+ * Stock check and donor lookup run in parallel from the start; the
+ * distance step must finish before the geo deadline, leaving the rest of
+ * the budget for ranking.
+ */
+public final class MatchBudget {
+
+    private final long startNanos;
+    private final long budgetMs;
+    private final long stockDeadlineNanos;
+    private final long donorsDeadlineNanos;
+    private final long geoDeadlineNanos;
+
+    MatchBudget(long budgetMs, long stockMs, long donorsMs, long geoMs) {
+        this.startNanos = System.nanoTime();
+        this.budgetMs = budgetMs;
+        this.stockDeadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(stockMs);
+        this.donorsDeadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(donorsMs);
+        this.geoDeadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(geoMs);
+    }
+
+    public long getBudgetMs() {
+        return budgetMs;
+    }
+
+    public long stockTimeoutMs() {
+        return remainingMs(stockDeadlineNanos);
+    }
+
+    public long donorsTimeoutMs() {
+        return remainingMs(donorsDeadlineNanos);
+    }
+
+    public long geoTimeoutMs() {
+        return remainingMs(geoDeadlineNanos);
+    }
+
+    public long elapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static long remainingMs(long deadlineNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+}
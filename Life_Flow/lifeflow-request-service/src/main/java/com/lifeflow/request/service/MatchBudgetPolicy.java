@@ -0,0 +1,65 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.entity.BloodRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Derives a matching time budget from urgency and the request's remaining
+ * time, then slices it per step. Each slice is also capped by the static
+ * per-step timeout in {@code matching.timeouts.*}.
+ */
+@Component
+public class MatchBudgetPolicy {
+
+    @Value("${matching.budget.critical-ms:1500}")
+    private long criticalBudgetMs;
+
+    @Value("${matching.budget.high-ms:3000}")
+    private long highBudgetMs;
+
+    @Value("${matching.budget.medium-ms:5000}")
+    private long mediumBudgetMs;
+
+    @Value("${matching.budget.low-ms:8000}")
+    private long lowBudgetMs;
+
+    @Value("${matching.budget.min-ms:300}")
+    private long minBudgetMs;
+
+    // Share of the request's remaining time matching may spend
+    @Value("${matching.budget.remaining-time-fraction:0.01}")
+    private double remainingTimeFraction;
+
+    @Value("${matching.timeouts.stock-ms:1000}")
+    private long stockTimeoutMs;
+
+    @Value("${matching.timeouts.donors-ms:2000}")
+    private long donorsTimeoutMs;
+
+    @Value("${matching.timeouts.geo-ms:2000}")
+    private long geoTimeoutMs;
+
+    /**
+     * Budget for matching this request, starting now
+     */
+    public MatchBudget budgetFor(BloodRequest request) {
+        long urgencyBudgetMs = switch (request.getUrgencyLevel()) {
+            case CRITICAL -> criticalBudgetMs;
+            case HIGH -> highBudgetMs;
+            case MEDIUM -> mediumBudgetMs;
+            case LOW -> lowBudgetMs;
+        };
+
+        long remainingMs = Math.max(0, request.getRemainingMinutes()) * 60_000L;
+        long deadlineShareMs = Math.max(minBudgetMs, (long) (remainingMs * remainingTimeFraction));
+        long budgetMs = Math.min(urgencyBudgetMs, deadlineShareMs);
+
+        // Stock and donors run in parallel within the first half; distances
+        // must land by 90%, leaving the last 10% for ranking
+        return new MatchBudget(budgetMs,
+                Math.min(stockTimeoutMs, budgetMs / 2),
+                Math.min(donorsTimeoutMs, budgetMs / 2),
+                Math.min(donorsTimeoutMs + geoTimeoutMs, budgetMs * 9 / 10));
+    }
+}
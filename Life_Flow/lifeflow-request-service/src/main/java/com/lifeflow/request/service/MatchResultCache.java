@@ -0,0 +1,151 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.MatchResultDTO;
+import com.lifeflow.request.entity.BloodRequest.BloodType;
+import com.lifeflow.request.event.MatchesInvalidatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-request cache of ranked matched donors for dashboard polling.
+ *
+ * Entries expire after {@code matching.result-cache.ttl-ms} and are
+ * invalidated early when a donor accepts, the request is cancelled, or
+ * stock of the requested blood type changes. Partial (budget-limited)
+ * results are never cached. Every invalidation is also published as a
+ * MatchesInvalidatedEvent so live streams can push ranking deltas.
+ *
+ * Callers take a {@link #stamp()} before matching starts; {@link #put}
+ * drops the result if the request or its blood type was invalidated
+ * after that, so a run that overlapped an invalidation never caches a
+ * ranking computed from stale state.
+ */
+@Slf4j
+@Component
+public class MatchResultCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, Mark> requestInvalidations = new ConcurrentHashMap<>();
+    private final Map<BloodType, Mark> bloodTypeInvalidations = new ConcurrentHashMap<>();
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final long ttlNanos;
+
+    public MatchResultCache(ApplicationEventPublisher applicationEventPublisher,
+                            @Value("${matching.result-cache.ttl-ms:30000}") long ttlMs) {
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    }
+
+    /**
+     * Cached top {@code limit} match result, or null on a miss. A ranking
+     * computed with a larger limit (or one that ran out of donors) also
+     * serves smaller limits.
+     */
+    public MatchResultDTO get(String requestId, int limit) {
+        Entry entry = entries.get(requestId);
+        if (entry == null) return null;
+
+        if (System.nanoTime() - entry.expiresAtNanos > 0) {
+            entries.remove(requestId, entry);
+            return null;
+        }
+
+        List<?> donors = entry.result.getDonors();
+        boolean complete = donors.size() < entry.limit;
+        if (entry.limit < limit && !complete) return null;
+
+        if (donors.size() <= limit) return entry.result;
+        return entry.result.toBuilder()
+                .donors(entry.result.getDonors().subList(0, limit))
+                .build();
+    }
+
+    /**
+     * Point in the invalidation history; take it before matching starts
+     */
+    public Stamp stamp() {
+        return new Stamp(generation.get(), System.nanoTime());
+    }
+
+    /**
+     * Cache a result computed by a run that started at {@code stamp}, unless
+     * the request or blood type has been invalidated since then
+     */
+    public void put(String requestId, BloodType bloodType, int limit, MatchResultDTO result, Stamp stamp) {
+        if (result.isPartial()) return;
+
+        // Invalidation marks are only kept for one TTL, so older runs cannot be checked
+        long now = System.nanoTime();
+        if (now - stamp.nanos() > ttlNanos) return;
+
+        MatchResultDTO snapshot = result.toBuilder()
+                .donors(List.copyOf(result.getDonors()))
+                .build();
+        Entry entry = new Entry(bloodType, limit, snapshot, now + ttlNanos);
+
+        // Marks are written before entries are removed, so checking them
+        // inside compute cannot miss an invalidation racing with this put
+        entries.compute(requestId, (id, existing) ->
+                invalidatedSince(requestInvalidations.get(id), stamp)
+                        || invalidatedSince(bloodTypeInvalidations.get(bloodType), stamp)
+                        ? existing : entry);
+    }
+
+    /**
+     * Drop the cached ranking of one request
+     */
+    public void invalidate(String requestId) {
+        requestInvalidations.put(requestId, mark());
+        if (entries.remove(requestId) != null) {
+            log.debug("Match cache invalidated for request: {}", requestId);
+        }
+        applicationEventPublisher.publishEvent(MatchesInvalidatedEvent.forRequest(requestId));
+    }
+
+    /**
+     * Drop cached rankings of every request needing the given blood type
+     */
+    public void invalidateBloodType(BloodType bloodType) {
+        bloodTypeInvalidations.put(bloodType, mark());
+        entries.values().removeIf(entry -> entry.bloodType == bloodType);
+        log.debug("Match cache invalidated for blood type: {}", bloodType);
+        applicationEventPublisher.publishEvent(MatchesInvalidatedEvent.forBloodType(bloodType));
+    }
+
+    @Scheduled(fixedDelayString = "${matching.result-cache.ttl-ms:30000}")
+    public void evictExpired() {
+        long now = System.nanoTime();
+        entries.values().removeIf(entry -> now - entry.expiresAtNanos > 0);
+        requestInvalidations.values().removeIf(mark -> now - mark.nanos() > ttlNanos);
+    }
+
+    private Mark mark() {
+        return new Mark(generation.incrementAndGet(), System.nanoTime());
+    }
+
+    private static boolean invalidatedSince(Mark mark, Stamp stamp) {
+        return mark != null && mark.generation() > stamp.generation();
+    }
+
+    /**
+     * Position in the invalidation history when a matching run started
+     */
+    public record Stamp(long generation, long nanos) {
+    }
+
+    private record Mark(long generation, long nanos) {
+    }
+
+    private record Entry(BloodType bloodType, int limit, MatchResultDTO result, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.lifeflow.request.service;
+
+/**
+ * Score components shared by the matching engine and candidate generation
+ */
+public final class MatchScoring {
+
+    public static final int MAX_COMPATIBILITY_SCORE = BloodCompatibility.EXACT_MATCH;
+    public static final int MAX_RELIABILITY_SCORE = 20;
+
+    private MatchScoring() {
+    }
+
+    /**
+     * Calculate final match score, with the urgency multiplier for critical requests
+     */
+    public static int finalScore(int compatibilityScore, int distanceScore,
+                                 Integer reliabilityScore, boolean critical) {
+        int finalScore = compatibilityScore + distanceScore +
+                         (reliabilityScore != null ? reliabilityScore : 0);
+        
+        if (critical) {
+            finalScore = (int) (finalScore * 1.5);
+        }
+        
+        return finalScore;
+    }
+
+    /**
+     * Calculate distance score (0-30 points, closer is better)
+     */
+    public static int distanceScore(Double distanceKm) {
+        if (distanceKm == null) return 0;
+        
+        if (distanceKm <= 1) return 30;
+        if (distanceKm <= 2) return 25;
+        if (distanceKm <= 3) return 20;
+        if (distanceKm <= 5) return 15;
+        if (distanceKm <= 10) return 10;
+        
+        return 5;
+    }
+
+    /**
+     * Highest final score any donor at least {@code minDistanceKm} away could reach
+     */
+    public static int bestPossibleScore(double minDistanceKm, boolean critical) {
+        return finalScore(MAX_COMPATIBILITY_SCORE, distanceScore(minDistanceKm),
+                MAX_RELIABILITY_SCORE, critical);
+    }
+}
@@ -0,0 +1,192 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.MatchDeltaDTO;
+import com.lifeflow.request.dto.MatchResultDTO;
+import com.lifeflow.request.entity.BloodRequest;
+import com.lifeflow.request.event.MatchesInvalidatedEvent;
+import com.lifeflow.request.event.RequestClosedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Progressive matched-donor streaming over Server-Sent Events.
+ *
+ * A subscriber first receives the nearby tier ranked from the local donor
+ * index ("initial"), then the full budgeted ranking ("ranking"), and then
+ * a "delta" each time acceptances or stock changes alter the ranking.
+ * Streams end when the request is cancelled, fulfilled or expires.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MatchStreamService {
+
+    private final RequestService requestService;
+    private final MatchingEngine matchingEngine;
+    @Qualifier("streamingExecutor")
+    private final Executor streamingExecutor;
+
+    private final Map<String, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    @Value("${matching.stream.timeout-ms:600000}")
+    private long emitterTimeoutMs;
+
+    /**
+     * Open a stream of ranked donors for a request
+     */
+    public SseEmitter subscribe(String requestId, int limit) {
+        BloodRequest request = requestService.getRequestById(requestId);
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscription subscription = new Subscription(emitter, request.getBloodTypeNeeded(), limit);
+        subscriptions.computeIfAbsent(requestId, id -> new CopyOnWriteArrayList<>()).add(subscription);
+
+        emitter.onCompletion(() -> unsubscribe(requestId, subscription));
+        emitter.onTimeout(() -> unsubscribe(requestId, subscription));
+        emitter.onError(e -> unsubscribe(requestId, subscription));
+
+        streamingExecutor.execute(() -> {
+            MatchResultDTO nearbyTier = matchingEngine.findNearbyTier(request, limit);
+            if (nearbyTier != null) {
+                send(requestId, subscription, "initial", nearbyTier);
+                subscription.last = nearbyTier;
+            }
+            drainRefreshes(requestId, subscription);
+        });
+
+        log.info("Matched-donor stream opened for request: {}", requestId);
+        return emitter;
+    }
+
+    /**
+     * Recompute rankings for subscribers whose matches went stale
+     */
+    @EventListener
+    public void onMatchesInvalidated(MatchesInvalidatedEvent event) {
+        subscriptions.forEach((requestId, requestSubscriptions) -> {
+            if (event.getRequestId() != null && !event.getRequestId().equals(requestId)) return;
+
+            requestSubscriptions.forEach(subscription -> {
+                if (event.getBloodType() != null && event.getBloodType() != subscription.bloodType) return;
+                scheduleRefresh(requestId, subscription);
+            });
+        });
+    }
+
+    /**
+     * End every stream of a request that can no longer be matched
+     */
+    @EventListener
+    public void onRequestClosed(RequestClosedEvent event) {
+        List<Subscription> closed = subscriptions.remove(event.getRequestId());
+        if (closed == null) return;
+
+        closed.forEach(subscription -> {
+            send(event.getRequestId(), subscription, "closed", event.getStatus());
+            subscription.emitter.complete();
+        });
+        log.info("Closed {} matched-donor streams for {} request: {}",
+                closed.size(), event.getStatus(), event.getRequestId());
+    }
+
+    /**
+     * Mark the subscription stale and start its refresh worker unless one is
+     * already running; invalidations that arrive meanwhile are folded into
+     * the worker's next pass
+     */
+    private void scheduleRefresh(String requestId, Subscription subscription) {
+        subscription.dirty.set(true);
+        if (!subscription.refreshing.compareAndSet(false, true)) return;
+
+        try {
+            streamingExecutor.execute(() -> drainRefreshes(requestId, subscription));
+        } catch (RejectedExecutionException e) {
+            // Still dirty, so the next invalidation retries
+            subscription.refreshing.set(false);
+            log.warn("Matched-donor stream refresh rejected for request: {}", requestId);
+        }
+    }
+
+    /**
+     * Refresh until no invalidation is pending. Only one worker runs per
+     * subscription, so its deltas are computed and sent in order.
+     */
+    private void drainRefreshes(String requestId, Subscription subscription) {
+        do {
+            while (subscription.dirty.getAndSet(false)) {
+                refresh(requestId, subscription);
+            }
+            subscription.refreshing.set(false);
+            // Pick up an invalidation that saw the worker still running
+        } while (subscription.dirty.get() && subscription.refreshing.compareAndSet(false, true));
+    }
+
+    /**
+     * Send the full ranking the first time, then only what changed
+     */
+    private void refresh(String requestId, Subscription subscription) {
+        try {
+            MatchResultDTO current = requestService.getMatchedDonors(requestId, subscription.limit);
+            MatchResultDTO previous = subscription.last;
+
+            if (previous == null || subscription.awaitingFullRanking) {
+                send(requestId, subscription, "ranking", current);
+            } else if (!MatchDeltaDTO.isUnchanged(previous, current)) {
+                send(requestId, subscription, "delta", MatchDeltaDTO.between(previous, current));
+            }
+
+            subscription.awaitingFullRanking = false;
+            subscription.last = current;
+        } catch (Exception e) {
+            log.warn("Failed to refresh matched-donor stream for request: {}", requestId, e);
+        }
+    }
+
+    private void send(String requestId, Subscription subscription, String eventName, Object data) {
+        try {
+            subscription.emitter.send(SseEmitter.event().name(eventName).data(data));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Matched-donor stream closed for request: {}", requestId);
+            unsubscribe(requestId, subscription);
+        }
+    }
+
+    private void unsubscribe(String requestId, Subscription subscription) {
+        subscriptions.computeIfPresent(requestId, (id, list) -> {
+            list.remove(subscription);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+        private final BloodRequest.BloodType bloodType;
+        private final int limit;
+        private volatile MatchResultDTO last;
+        private volatile boolean awaitingFullRanking = true;
+        // The subscribe task owns the worker until its first drain
+        private final AtomicBoolean dirty = new AtomicBoolean(true);
+        private final AtomicBoolean refreshing = new AtomicBoolean(true);
+
+        private Subscription(SseEmitter emitter, BloodRequest.BloodType bloodType, int limit) {
+            this.emitter = emitter;
+            this.bloodType = bloodType;
+            this.limit = limit;
+        }
+    }
+}
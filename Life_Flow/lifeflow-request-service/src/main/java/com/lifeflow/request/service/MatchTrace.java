@@ -0,0 +1,101 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.entity.BloodRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-stage timings of one matching run. Stages may run on different
+ * threads, so timings are collected concurrently and reported to
+ * MatchingMetrics as each stage completes.
+ */
+public final class MatchTrace {
+
+    public static final String STOCK = "stock";
+    public static final String DONORS = "donors";
+    public static final String GEO = "geo";
+    public static final String RANKING = "ranking";
+
+    private final MatchingMetrics metrics;
+    private final String requestId;
+    private final BloodRequest.BloodType bloodType;
+    private final BloodRequest.UrgencyLevel urgencyLevel;
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Long> stageNanos = new ConcurrentHashMap<>();
+    private volatile int candidateCount;
+
+    MatchTrace(MatchingMetrics metrics, BloodRequest request) {
+        this.metrics = metrics;
+        this.requestId = request.getRequestId();
+        this.bloodType = request.getBloodTypeNeeded();
+        this.urgencyLevel = request.getUrgencyLevel();
+    }
+
+    /**
+     * Wrap a stage so its duration is recorded when it completes
+     */
+    public <T> Supplier<T> timed(String stage, Supplier<T> supplier) {
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                return supplier.get();
+            } finally {
+                record(stage, System.nanoTime() - start);
+            }
+        };
+    }
+
+    /**
+     * Record a stage that runs as a future, timed from now until it completes
+     */
+    public <T> CompletableFuture<T> timed(String stage, CompletableFuture<T> future) {
+        long start = System.nanoTime();
+        return future.whenComplete((value, error) -> record(stage, System.nanoTime() - start));
+    }
+
+    public void record(String stage, long nanos) {
+        stageNanos.merge(stage, nanos, Long::sum);
+        metrics.recordStage(this, stage, nanos);
+    }
+
+    public void setCandidateCount(int candidateCount) {
+        this.candidateCount = candidateCount;
+    }
+
+    public int getCandidateCount() {
+        return candidateCount;
+    }
+
+    public String getRequestId() {
+        return requestId;
+    }
+
+    public BloodRequest.BloodType getBloodType() {
+        return bloodType;
+    }
+
+    public BloodRequest.UrgencyLevel getUrgencyLevel() {
+        return urgencyLevel;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Stage durations in milliseconds, in a stable order
+     */
+    public Map<String, Long> stageMillis() {
+        Map<String, Long> millis = new LinkedHashMap<>();
+        for (String stage : new String[] {STOCK, DONORS, GEO, RANKING}) {
+            Long nanos = stageNanos.get(stage);
+            if (nanos != null) millis.put(stage, TimeUnit.NANOSECONDS.toMillis(nanos));
+        }
+        return millis;
+    }
+}
@@ -1,140 +1,393 @@
 package com.lifeflow.request.service;
 
+import com.lifeflow.request.dto.DistanceMatrixRequestDTO;
+import com.lifeflow.request.dto.MatchResultDTO;
 import com.lifeflow.request.dto.MatchedDonorDTO;
 import com.lifeflow.request.entity.BloodRequest;
+import com.lifeflow.request.util.GeoUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class MatchingEngine {
 
-    private final DonorServiceClient donorServiceClient;
-    private final InventoryServiceClient inventoryServiceClient;
+    public static final int DEFAULT_MATCH_LIMIT = 10;
+
     private final GeolocationServiceClient geoServiceClient;
+    private final EligibleDonorIndex donorIndex;
+    private final NearbyDonorSearch nearbyDonorSearch;
+    private final DistanceCache distanceCache;
+    private final DownstreamCallCoalescer downstreamCalls;
+    private final StockSnapshot stockSnapshot;
+    private final MatchBudgetPolicy budgetPolicy;
+    private final MatchingMetrics matchingMetrics;
+    private final DonorReservations donorReservations;
+    @Qualifier("matchingExecutor")
+    private final Executor matchingExecutor;
+
+    @Value("${matching.max-limit:100}")
+    private int maxMatchLimit;
+
+    /**
+     * Find the top matched donors for a blood request
+     */
+    public MatchResultDTO findMatchedDonors(BloodRequest request) {
+        return findMatchedDonors(request, DEFAULT_MATCH_LIMIT);
+    }
 
     /**
      * Find matched donors for a blood request
-     * Algorithm: Score-based matching
+     * Algorithm: Score-based matching, returning the top {@code limit} donors
+     * within a time budget derived from urgency and the remaining deadline
      */
-    public List<MatchedDonorDTO> findMatchedDonors(BloodRequest request) {
+    public MatchResultDTO findMatchedDonors(BloodRequest request, int limit) {
+        MatchTrace trace = matchingMetrics.startTrace(request);
+        MatchResultDTO result = null;
+        try {
+            result = findMatchedDonors(request, limit, trace);
+            return result;
+        } finally {
+            matchingMetrics.finish(trace, result);
+        }
+    }
+
+    private MatchResultDTO findMatchedDonors(BloodRequest request, int limit, MatchTrace trace) {
         
-        log.info("Starting donor matching for request: {} - Blood Type: {}",
-                request.getRequestId(), request.getBloodTypeNeeded());
+        MatchBudget budget = budgetPolicy.budgetFor(request);
         
-        // Step 1: Check inventory for stock
-        boolean stockAvailable = inventoryServiceClient.checkStock(
-                request.getBloodTypeNeeded().toString(),
-                request.getUnitsRequired());
+        log.info("Starting donor matching for request: {} - Blood Type: {} - Limit: {} - Budget: {}ms",
+                request.getRequestId(), request.getBloodTypeNeeded(), limit, budget.getBudgetMs());
+        
+        int topLimit = Math.max(1, Math.min(limit, maxMatchLimit));
         
-        if (stockAvailable) {
+        String bloodType = request.getBloodTypeNeeded().toString();
+        Double units = request.getUnitsRequired();
+        
+        // Steps 1, 2 and 4 fan out in parallel, each bounded by its slice of
+        // the budget: the stock check runs alongside the donor lookup, and the
+        // distance matrix starts as soon as the donor list arrives
+        // The event-fed stock snapshot answers most checks locally; identical
+        // concurrent remote lookups share one downstream call
+        Boolean localStock = stockSnapshot.checkStock(request.getBloodTypeNeeded(), units);
+        CompletableFuture<Boolean> stockFuture = localStock != null
+                ? CompletableFuture.completedFuture(localStock)
+                : trace.timed(MatchTrace.STOCK, downstreamCalls.checkStock(bloodType, units))
+                        .orTimeout(budget.stockTimeoutMs(), TimeUnit.MILLISECONDS);
+        
+        // Eligible donors come from the local event-fed index once it is loaded,
+        // and only fall back to donor-service before the first resync
+        CompletableFuture<List<MatchedDonorDTO>> donorsFuture = donorIndex.isReady()
+                ? CompletableFuture.completedFuture(trace.timed(MatchTrace.DONORS,
+                        () -> findLocalCandidates(request, topLimit)).get())
+                : trace
+                        .timed(MatchTrace.DONORS, downstreamCalls.findEligibleDonors(bloodType, units))
+                        .orTimeout(budget.donorsTimeoutMs(), TimeUnit.MILLISECONDS);
+        
+        CompletableFuture<Distances> distancesFuture = donorsFuture.thenCompose(donors ->
+                CompletableFuture
+                        .supplyAsync(trace.timed(MatchTrace.GEO,
+                                () -> resolveDistances(request, donors)), matchingExecutor)
+                        .orTimeout(budget.geoTimeoutMs(), TimeUnit.MILLISECONDS)
+                        .exceptionally(e -> haversineDistances(request, donors)));
+        
+        // Step 1: Check inventory for stock
+        StockCheck stock = checkStock(request, stockFuture);
+        if (stock == StockCheck.AVAILABLE) {
+            // Drop the donor branch. Cancelling keeps the distance step from
+            // starting, but a Feign call already in flight still runs to
+            // completion and its result is discarded
+            donorsFuture.cancel(true);
+            distancesFuture.cancel(true);
             log.info("Stock available in inventory for request: {}", request.getRequestId());
-            return List.of(); // Return empty, use stock instead
+            
+            // Return no donors, use stock instead
+            return MatchResultDTO.builder()
+                    .requestId(request.getRequestId())
+                    .donors(List.of())
+                    .stockAvailable(true)
+                    .partial(false)
+                    .budgetMs(budget.getBudgetMs())
+                    .elapsedMs(budget.elapsedMs())
+                    .build();
         }
         
         // Step 2: Find eligible donors
-        List<MatchedDonorDTO> eligibleDonors = donorServiceClient.findEligibleDonors(
-                request.getBloodTypeNeeded().toString(),
-                request.getUnitsRequired());
+        List<MatchedDonorDTO> eligibleDonors;
+        Distances distances;
+        try {
+            eligibleDonors = donorsFuture.join();
+            distances = distancesFuture.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (!(cause instanceof TimeoutException)) {
+                throw new RuntimeException("Eligible donor lookup failed for request: " +
+                        request.getRequestId(), cause);
+            }
+            
+            // Nothing to rank yet: report an empty, partial result rather than blocking
+            log.warn("Eligible donor lookup exceeded {}ms budget for request: {}",
+                    budget.getBudgetMs(), request.getRequestId());
+            return MatchResultDTO.builder()
+                    .requestId(request.getRequestId())
+                    .donors(List.of())
+                    .stockAvailable(false)
+                    .partial(true)
+                    .partialReason(stock == StockCheck.UNKNOWN
+                            ? "Stock check and eligible donor lookup exceeded the matching budget"
+                            : "Eligible donor lookup exceeded the matching budget")
+                    .budgetMs(budget.getBudgetMs())
+                    .elapsedMs(budget.elapsedMs())
+                    .build();
+        }
         
         log.info("Found {} eligible donors for request: {}",
                 eligibleDonors.size(), request.getRequestId());
+        trace.setCandidateCount(eligibleDonors.size());
         
-        // Step 3: Calculate compatibility scores
-        eligibleDonors.forEach(donor -> {
-            int compatibilityScore = calculateCompatibilityScore(request, donor);
-            donor.setMatchScore(compatibilityScore);
-        });
+        // Steps 3-6: score every donor in a single pass, keeping only the top K
+        List<MatchedDonorDTO> rankedDonors = trace.timed(MatchTrace.RANKING,
+                () -> rankDonors(request, eligibleDonors, distances.km(), topLimit, true)).get();
         
-        // Step 4: Get geolocation distances
-        String hospitalLocation = request.getGpsLocationHospital();
-        eligibleDonors.forEach(donor -> {
-            Double distance = geoServiceClient.calculateDistance(
-                    donor.getDonorLocation(), hospitalLocation);
-            donor.setDistanceKm(distance);
-            
-            // Distance score (0-30 points, closer is better)
-            int distanceScore = calculateDistanceScore(distance);
-            donor.setDistanceScore(distanceScore);
-        });
+        log.info("Ranked {} top donors for request: {} in {}ms{}", rankedDonors.size(),
+                request.getRequestId(), budget.elapsedMs(),
+                distances.estimated() ? " (estimated distances)" : "");
         
-        // Step 5: Calculate final match score
-        eligibleDonors.forEach(donor -> {
-            int finalScore = donor.getCompatibilityScore() +
-                           donor.getDistanceScore() +
-                           donor.getReliabilityScore();
-            
-            // Apply urgency multiplier for critical requests
-            if (request.isCritical()) {
-                finalScore = (int) (finalScore * 1.5);
-            }
-            
-            donor.setFinalMatchScore(finalScore);
-        });
+        // Unknown stock must not read as "no stock", and partial results are never cached
+        String partialReason = null;
+        if (stock == StockCheck.UNKNOWN) {
+            partialReason = "Stock check exceeded the matching budget";
+        } else if (distances.estimated()) {
+            partialReason = "Distances estimated locally; geolocation service missed the matching budget";
+        }
         
-        // Step 6: Sort by final score (descending)
-        List<MatchedDonorDTO> rankedDonors = eligibleDonors.stream()
-                .sorted(Comparator.comparingInt(MatchedDonorDTO::getFinalMatchScore).reversed())
-                .limit(10) // Return top 10 matches
-                .toList();
+        return MatchResultDTO.builder()
+                .requestId(request.getRequestId())
+                .donors(rankedDonors)
+                .stockAvailable(false)
+                .partial(partialReason != null)
+                .partialReason(partialReason)
+                .budgetMs(budget.getBudgetMs())
+                .elapsedMs(budget.elapsedMs())
+                .build();
+    }
+
+    /**
+     * Fast first tier for streaming: ranks nearby donors from the local index
+     * on straight-line distances, with no downstream calls. Returns null until
+     * the donor index has been loaded.
+     */
+    public MatchResultDTO findNearbyTier(BloodRequest request, int limit) {
+        return findNearbyTier(request, limit, true);
+    }
+
+    /**
+     * Nearby tier including donors held for other requests, as input to the
+     * global assignment that decides those holds
+     */
+    public MatchResultDTO findAssignmentCandidates(BloodRequest request, int limit) {
+        return findNearbyTier(request, limit, false);
+    }
+
+    private MatchResultDTO findNearbyTier(BloodRequest request, int limit, boolean skipHeld) {
+        if (!donorIndex.isReady()) return null;
         
-        log.info("Ranked {} top donors for request: {}", rankedDonors.size(),
-                request.getRequestId());
+        long start = System.nanoTime();
+        int topLimit = Math.max(1, Math.min(limit, maxMatchLimit));
+        List<MatchedDonorDTO> candidates = findLocalCandidates(request, topLimit);
+        List<MatchedDonorDTO> rankedDonors = rankDonors(request, candidates,
+                haversineDistances(request, candidates).km(), topLimit, skipHeld);
         
-        return rankedDonors;
+        return MatchResultDTO.builder()
+                .requestId(request.getRequestId())
+                .donors(rankedDonors)
+                .stockAvailable(false)
+                .partial(true)
+                .partialReason("Nearby tier: straight-line distances, stock not yet checked")
+                .elapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .build();
     }
 
     /**
-     * Calculate compatibility score (0-40 points)
+     * Score donors in a single pass and return the top {@code limit}, best
+     * first; with {@code skipHeld}, donors the last assignment run held for
+     * another request are left out
      */
-    private int calculateCompatibilityScore(BloodRequest request, MatchedDonorDTO donor) {
-        String bloodType = request.getBloodTypeNeeded().toString();
+    private List<MatchedDonorDTO> rankDonors(BloodRequest request, List<MatchedDonorDTO> eligibleDonors,
+                                             List<Double> distances, int limit, boolean skipHeld) {
+        BloodRequest.BloodType recipientType = request.getBloodTypeNeeded();
+        boolean critical = request.isCritical();
+        TopKSelector topK = new TopKSelector(limit);
         
-        if (bloodType.equals(donor.getBloodType())) {
-            return 40; // Exact match
+        for (int i = 0; i < eligibleDonors.size(); i++) {
+            MatchedDonorDTO donor = eligibleDonors.get(i);
+            if (skipHeld && donorReservations.isHeldForOther(donor.getDonorId(), request.getRequestId())) {
+                continue;
+            }
+            
+            // Step 3: Compatibility score (precomputed ABO/Rh table lookup)
+            int compatibilityScore = BloodCompatibility.score(recipientType, donor.getBloodTypeCode());
+            if (compatibilityScore == BloodCompatibility.INCOMPATIBLE) continue;
+            
+            // Step 4: Distance score (0-30 points, closer is better)
+            int distanceScore = MatchScoring.distanceScore(distances.get(i));
+            
+            // Step 5: Final match score
+            int finalScore = MatchScoring.finalScore(compatibilityScore, distanceScore,
+                    donor.getReliabilityScore(), critical);
+            
+            // Step 6: Bounded top-K selection (descending score, earlier donor wins ties)
+            topK.offer(finalScore, i);
         }
         
-        // Check universal compatibility
-        if ((bloodType.startsWith("A") || bloodType.startsWith("B") || bloodType.startsWith("AB"))
-            && donor.getBloodType().equals("O_POSITIVE")) {
-            return 35; // Compatible
+        int[] topIndices = topK.drainIndices();
+        List<MatchedDonorDTO> rankedDonors = new ArrayList<>(topIndices.length);
+        for (int index : topIndices) {
+            MatchedDonorDTO donor = eligibleDonors.get(index);
+            Double distance = distances.get(index);
+            int compatibilityScore = BloodCompatibility.score(recipientType, donor.getBloodTypeCode());
+            int distanceScore = MatchScoring.distanceScore(distance);
+            
+            donor.setCompatibilityScore(compatibilityScore);
+            donor.setDistanceKm(distance);
+            donor.setDistanceScore(distanceScore);
+            donor.setFinalMatchScore(MatchScoring.finalScore(compatibilityScore, distanceScore,
+                    donor.getReliabilityScore(), critical));
+            rankedDonors.add(donor);
         }
         
-        if (bloodType.equals("AB_POSITIVE") && 
-            (donor.getBloodType().equals("O_POSITIVE") || 
-             donor.getBloodType().equals("A_POSITIVE") ||
-             donor.getBloodType().equals("B_POSITIVE"))) {
-            return 35;
+        return rankedDonors;
+    }
+
+    /**
+     * Candidates from the local donor index: nearby donors found by ring
+     * expansion, or every compatible donor when the hospital has no location
+     */
+    private List<MatchedDonorDTO> findLocalCandidates(BloodRequest request, int limit) {
+        List<MatchedDonorDTO> nearby = nearbyDonorSearch.findCandidates(request, limit);
+        return nearby != null ? nearby : donorIndex.findEligibleDonors(request.getBloodTypeNeeded());
+    }
+
+    /**
+     * Resolve hospital-to-donor distances, serving repeats from the distance
+     * cache and fetching the rest with a single distance-matrix call.
+     * Falls back to local haversine distances when the geolocation service
+     * is slow, down, or returns a malformed matrix.
+     */
+    private Distances resolveDistances(BloodRequest request, List<MatchedDonorDTO> donors) {
+        if (donors.isEmpty()) return new Distances(List.of(), false);
+
+        String hospitalLocation = request.getGpsLocationHospital();
+        double[] origin = GeoUtils.parseLocation(hospitalLocation);
+
+        List<Double> distances = new ArrayList<>(donors.size());
+        List<DistanceCache.Key> keys = new ArrayList<>(donors.size());
+        List<Integer> missing = new ArrayList<>();
+        List<String> destinations = new ArrayList<>();
+
+        for (int i = 0; i < donors.size(); i++) {
+            String donorLocation = donors.get(i).getDonorLocation();
+            DistanceCache.Key key = distanceCache.keyOf(origin, GeoUtils.parseLocation(donorLocation));
+            Double cached = distanceCache.get(key);
+
+            keys.add(key);
+            distances.add(cached);
+            if (cached == null) {
+                missing.add(i);
+                destinations.add(donorLocation);
+            }
         }
-        
-        if (bloodType.endsWith("NEGATIVE") && donor.getBloodType().endsWith("NEGATIVE")) {
-            return 30; // Both negative
+
+        if (missing.isEmpty()) return new Distances(distances, false);
+
+        try {
+            List<Double> fetched = geoServiceClient.calculateDistanceMatrix(
+                    DistanceMatrixRequestDTO.builder()
+                            .origin(hospitalLocation)
+                            .destinations(destinations)
+                            .build());
+
+            if (fetched != null && fetched.size() == destinations.size()) {
+                for (int m = 0; m < missing.size(); m++) {
+                    int index = missing.get(m);
+                    distances.set(index, fetched.get(m));
+                    distanceCache.put(keys.get(index), fetched.get(m));
+                }
+                return new Distances(distances, false);
+            }
+            log.warn("Distance matrix size mismatch for request: {}, using haversine fallback",
+                    request.getRequestId());
+        } catch (Exception e) {
+            log.warn("Geolocation service unavailable for request: {}, using haversine fallback - {}",
+                    request.getRequestId(), e.getMessage());
         }
-        
-        return 10; // Incompatible but may still work in emergency
+
+        return haversineDistances(request, donors);
     }
 
     /**
-     * Calculate distance score (0-30 points, closer is better)
+     * Distances from the hospital to each donor, in donor order, using cached
+     * geolocation distances where present and local haversine elsewhere
      */
-    private int calculateDistanceScore(Double distanceKm) {
-        if (distanceKm == null) return 0;
-        
-        if (distanceKm <= 1) return 30;
-        if (distanceKm <= 2) return 25;
-        if (distanceKm <= 3) return 20;
-        if (distanceKm <= 5) return 15;
-        if (distanceKm <= 10) return 10;
-        
-        return 5;
+    private Distances haversineDistances(BloodRequest request, List<MatchedDonorDTO> donors) {
+        double[] origin = GeoUtils.parseLocation(request.getGpsLocationHospital());
+        List<Double> distances = new ArrayList<>(donors.size());
+        boolean estimated = false;
+
+        for (MatchedDonorDTO donor : donors) {
+            double[] destination = GeoUtils.parseLocation(donor.getDonorLocation());
+            Double distance = distanceCache.get(distanceCache.keyOf(origin, destination));
+            if (distance == null && origin != null && destination != null) {
+                distance = GeoUtils.haversineKm(origin[0], origin[1], destination[0], destination[1]);
+                estimated = true;
+            }
+            distances.add(distance);
+        }
+
+        return new Distances(distances, estimated);
+    }
+
+    /**
+     * Wait for the stock check within its deadline. A failed or timed-out
+     * check is UNKNOWN, and donor matching still proceeds.
+     */
+    private StockCheck checkStock(BloodRequest request, CompletableFuture<Boolean> stockFuture) {
+        try {
+            return Boolean.TRUE.equals(stockFuture.join()) ? StockCheck.AVAILABLE : StockCheck.UNAVAILABLE;
+        } catch (CompletionException | CancellationException e) {
+            log.warn("Stock check failed for request: {}, continuing with donor matching - {}",
+                    request.getRequestId(), e.getMessage());
+            return StockCheck.UNKNOWN;
+        }
+    }
+
+    private enum StockCheck {
+        AVAILABLE, UNAVAILABLE, UNKNOWN
+    }
+
+    /**
+     * Hospital-to-donor distances in donor order; estimated when computed
+     * locally instead of by the geolocation service
+     */
+    private record Distances(List<Double> km, boolean estimated) {
     }
 
     // Feign Clients for inter-service communication
@@ -144,6 +397,9 @@ public class MatchingEngine {
         List<MatchedDonorDTO> findEligibleDonors(
                 @RequestParam String bloodType,
                 @RequestParam Double units);
+
+        @GetMapping("/api/v1/donors/eligible/all")
+        List<MatchedDonorDTO> findAllEligibleDonors();
     }
 
     @FeignClient(name = "inventory-service", url = "${services.inventory-service.url:http://localhost:3003}")
@@ -160,5 +416,8 @@ public class MatchingEngine {
         Double calculateDistance(
                 @RequestParam String origin,
                 @RequestParam String destination);
+
+        @PostMapping("/api/v1/geo/distance-matrix")
+        List<Double> calculateDistanceMatrix(@RequestBody DistanceMatrixRequestDTO matrixRequest);
     }
 }
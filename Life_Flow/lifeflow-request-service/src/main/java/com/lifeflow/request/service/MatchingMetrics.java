@@ -0,0 +1,136 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.MatchResultDTO;
+import com.lifeflow.request.dto.SlowMatchDTO;
+import com.lifeflow.request.entity.BloodRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation for the matching pipeline.
+ *
+ * Meters (tagged by blood type and urgency):
+ *   lifeflow.matching.stage       - timer per stage (stock, donors, geo, ranking)
+ *   lifeflow.matching.total       - timer for the whole run
+ *   lifeflow.matching.candidates  - candidate-set size per run
+ *   lifeflow.matching.partial     - runs that returned a partial result
+ *
+ * Runs slower than {@code matching.metrics.slow-threshold-ms} are also kept,
+ * with their per-stage breakdown, in a bounded in-memory history.
+ */
+@Slf4j
+@Component
+public class MatchingMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final int slowHistorySize;
+    private final Deque<SlowMatchDTO> slowMatches = new ArrayDeque<>();
+
+    public MatchingMetrics(MeterRegistry meterRegistry,
+                           @Value("${matching.metrics.slow-threshold-ms:500}") long slowThresholdMs,
+                           @Value("${matching.metrics.slow-history-size:50}") int slowHistorySize) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.slowHistorySize = slowHistorySize;
+    }
+
+    public MatchTrace startTrace(BloodRequest request) {
+        return new MatchTrace(this, request);
+    }
+
+    void recordStage(MatchTrace trace, String stage, long nanos) {
+        Timer.builder("lifeflow.matching.stage")
+                .description("Duration of each matching pipeline stage")
+                .tag("stage", stage)
+                .tag("bloodType", String.valueOf(trace.getBloodType()))
+                .tag("urgency", String.valueOf(trace.getUrgencyLevel()))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the end of a matching run
+     */
+    public void finish(MatchTrace trace, MatchResultDTO result) {
+        long totalNanos = trace.elapsedNanos();
+        String bloodType = String.valueOf(trace.getBloodType());
+        String urgency = String.valueOf(trace.getUrgencyLevel());
+
+        Timer.builder("lifeflow.matching.total")
+                .description("Duration of a full matching run")
+                .tag("bloodType", bloodType)
+                .tag("urgency", urgency)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(totalNanos, TimeUnit.NANOSECONDS);
+
+        DistributionSummary.builder("lifeflow.matching.candidates")
+                .description("Candidate donors scored per matching run")
+                .tag("bloodType", bloodType)
+                .tag("urgency", urgency)
+                .register(meterRegistry)
+                .record(trace.getCandidateCount());
+
+        boolean partial = result != null && result.isPartial();
+        if (partial) {
+            Counter.builder("lifeflow.matching.partial")
+                    .description("Matching runs that returned a partial result")
+                    .tag("bloodType", bloodType)
+                    .tag("urgency", urgency)
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        if (totalNanos >= slowThresholdNanos) {
+            SlowMatchDTO slowMatch = SlowMatchDTO.builder()
+                    .requestId(trace.getRequestId())
+                    .bloodType(bloodType)
+                    .urgencyLevel(urgency)
+                    .totalMs(TimeUnit.NANOSECONDS.toMillis(totalNanos))
+                    .stageMs(trace.stageMillis())
+                    .candidateCount(trace.getCandidateCount())
+                    .partial(partial)
+                    .recordedAt(LocalDateTime.now())
+                    .build();
+
+            synchronized (slowMatches) {
+                slowMatches.addFirst(slowMatch);
+                while (slowMatches.size() > slowHistorySize) {
+                    slowMatches.removeLast();
+                }
+            }
+
+            log.warn("Slow match for request: {} took {}ms - stages: {}",
+                    trace.getRequestId(), slowMatch.getTotalMs(), slowMatch.getStageMs());
+        }
+    }
+
+    /**
+     * Most recent slow matches, newest first
+     */
+    public List<SlowMatchDTO> getSlowMatches(int limit) {
+        List<SlowMatchDTO> result = new ArrayList<>();
+        synchronized (slowMatches) {
+            Iterator<SlowMatchDTO> iterator = slowMatches.iterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                result.add(iterator.next());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,75 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.MatchedDonorDTO;
+import com.lifeflow.request.entity.BloodRequest;
+import com.lifeflow.request.util.GeoUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spatial candidate generation for matching.
+ *
+ * Expands rings of grid cells outwards from the hospital and stops as soon
+ * as no donor further out could outrank the current top K on straight-line
+ * distance, so match cost follows local donor density rather than the
+ * city's total donor population.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NearbyDonorSearch {
+
+    private static final int MAX_RINGS = 1000;
+
+    private final EligibleDonorIndex donorIndex;
+
+    @Value("${matching.donor-index.max-radius-km:50}")
+    private double maxRadiusKm;
+
+    /**
+     * Candidate donors near the hospital, or null when the hospital location is unknown
+     */
+    public List<MatchedDonorDTO> findCandidates(BloodRequest request, int limit) {
+        double[] origin = GeoUtils.parseLocation(request.getGpsLocationHospital());
+        if (origin == null) return null;
+
+        BloodRequest.BloodType recipientType = request.getBloodTypeNeeded();
+        boolean critical = request.isCritical();
+        TopKSelector topK = new TopKSelector(limit);
+        List<MatchedDonorDTO> candidates = new ArrayList<>();
+
+        int ring = 0;
+        for (; ring < MAX_RINGS; ring++) {
+            for (MatchedDonorDTO donor : donorIndex.findEligibleDonorsInRing(
+                    recipientType, origin[0], origin[1], ring)) {
+                double[] location = GeoUtils.parseLocation(donor.getDonorLocation());
+                double distance = GeoUtils.haversineKm(origin[0], origin[1], location[0], location[1]);
+
+                int score = MatchScoring.finalScore(
+                        BloodCompatibility.score(recipientType, donor.getBloodTypeCode()),
+                        MatchScoring.distanceScore(distance),
+                        donor.getReliabilityScore(), critical);
+                topK.offer(score, candidates.size());
+                candidates.add(donor);
+            }
+
+            // Every donor not yet seen is at least this far from the hospital
+            double coveredKm = donorIndex.distanceCoveredKm(origin[0], ring);
+            if (coveredKm >= maxRadiusKm) break;
+            if (topK.isFull() && topK.weakestScore() >= MatchScoring.bestPossibleScore(coveredKm, critical)) break;
+        }
+
+        // Donors without a usable location can only be scored without distance
+        candidates.addAll(donorIndex.findUnlocatedEligibleDonors(recipientType));
+
+        log.debug("Nearby search for request: {} scanned {} rings, {} candidates of {} indexed donors",
+                request.getRequestId(), ring + 1, candidates.size(), donorIndex.size());
+
+        return candidates;
+    }
+}
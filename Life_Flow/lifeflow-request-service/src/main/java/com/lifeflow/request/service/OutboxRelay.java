@@ -0,0 +1,158 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.entity.OutboxEvent;
+import com.lifeflow.request.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the outbox table to RabbitMQ in batches.
+ *
+ * Each batch is locked with SKIP LOCKED so several instances can relay in
+ * parallel, published with publisher confirms, and only marked published
+ * once the broker has acked it. Anything not acked in time stays in the
+ * outbox and is retried on the next run, so delivery is at-least-once and
+ * consumers must tolerate duplicates (the event id is sent as message id).
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final String EXCHANGE = "lifeflow.events";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+    private final long retentionHours;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       RabbitTemplate rabbitTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                       @Value("${outbox.retention-hours:72}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.retentionHours = retentionHours;
+        this.publishedCounter = Counter.builder("lifeflow.outbox.published")
+                .description("Outbox events confirmed by the broker")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("lifeflow.outbox.failed")
+                .description("Outbox publish attempts that were nacked or timed out")
+                .register(meterRegistry);
+        Gauge.builder("lifeflow.outbox.pending", outboxEventRepository,
+                        OutboxEventRepository::countByPublishedAtIsNull)
+                .description("Outbox events waiting to be published")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:500}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published != null && published == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay run failed", e);
+        }
+    }
+
+    /**
+     * Publish one locked batch and mark the confirmed events, returning how
+     * many were confirmed
+     */
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockUnpublishedBatch(batchSize);
+        if (batch.isEmpty()) return 0;
+
+        // Send the whole batch first, then wait for the confirms together
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            CorrelationData correlation = new CorrelationData(event.getEventId());
+            rabbitTemplate.convertAndSend(EXCHANGE, event.getRoutingKey(), event.getPayload(), message -> {
+                message.getMessageProperties().setMessageId(event.getEventId());
+                message.getMessageProperties().setType(event.getEventType());
+                return message;
+            }, correlation);
+            confirms.add(correlation);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        LocalDateTime now = LocalDateTime.now();
+        int confirmed = 0;
+
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            String error = awaitConfirm(confirms.get(i), deadline);
+
+            event.setAttempts(event.getAttempts() + 1);
+            if (error == null) {
+                event.setPublishedAt(now);
+                event.setLastError(null);
+                confirmed++;
+            } else {
+                event.setLastError(error);
+                log.warn("Outbox event {} ({}) not confirmed, will retry - {}",
+                        event.getEventId(), event.getEventType(), error);
+            }
+        }
+
+        outboxEventRepository.saveAll(batch);
+        publishedCounter.increment(confirmed);
+        failedCounter.increment(batch.size() - confirmed);
+
+        log.debug("Outbox relay published {}/{} events", confirmed, batch.size());
+        return confirmed;
+    }
+
+    /**
+     * Null when the broker acked, otherwise the reason it did not
+     */
+    private String awaitConfirm(CorrelationData correlation, long deadlineNanos) {
+        try {
+            long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+            CorrelationData.Confirm confirm = correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+            if (confirm.isAck()) return null;
+            return "Nacked by broker: " + confirm.getReason();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Interrupted waiting for confirm";
+        } catch (Exception e) {
+            return "No confirm within " + confirmTimeoutMs + "ms: " + e.getClass().getSimpleName();
+        }
+    }
+
+    /**
+     * Remove published events past the retention window
+     */
+    @Scheduled(cron = "${outbox.cleanup-cron:0 15 * * * *}")
+    public void purgePublished() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deletePublishedBefore(cutoff));
+        log.info("Purged {} published outbox events older than {}", deleted, cutoff);
+    }
+}
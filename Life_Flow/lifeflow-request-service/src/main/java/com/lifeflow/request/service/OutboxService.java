@@ -0,0 +1,64 @@
+package com.lifeflow.request.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lifeflow.common.event.DomainEvent;
+import com.lifeflow.common.id.IdGenerator;
+import com.lifeflow.request.entity.OutboxEvent;
+import com.lifeflow.request.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Records domain events in the outbox table as part of the caller's
+ * transaction, so an event is stored if and only if its state change commits.
+ * OutboxRelay publishes them to the event bus afterwards.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final IdGenerator idGenerator;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(DomainEvent event) {
+        outboxEventRepository.save(toOutboxEvent(event));
+        
+        log.debug("Event queued in outbox: {} for aggregate: {}", event.getEventType(), event.getAggregateId());
+    }
+
+    /**
+     * Queue several events with a single batched insert
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<? extends DomainEvent> events) {
+        outboxEventRepository.saveAll(events.stream().map(this::toOutboxEvent).toList());
+        
+        log.debug("{} events queued in outbox", events.size());
+    }
+
+    private OutboxEvent toOutboxEvent(DomainEvent event) {
+        String eventType = event.getEventType();
+        
+        try {
+            return OutboxEvent.builder()
+                    .eventId(idGenerator.nextId("evt-"))
+                    .aggregateId(event.getAggregateId())
+                    .eventType(eventType)
+                    .routingKey("event." + eventType.toLowerCase())
+                    .payload(objectMapper.writeValueAsString(event))
+                    .attempts(0)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize event: " + eventType, e);
+        }
+    }
+}
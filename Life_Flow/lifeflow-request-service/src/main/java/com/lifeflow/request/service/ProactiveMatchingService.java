@@ -0,0 +1,144 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.dto.MatchResultDTO;
+import com.lifeflow.request.entity.BloodRequest;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs matching as soon as a request commits, so the ranking is already in
+ * the match result cache when the hospital asks for it.
+ *
+ * Work is ordered earliest-deadline-first, with each point of
+ * urgencyNumericScore pulling a request forward by
+ * {@code matching.proactive.urgency-weight-ms}. With the default weight a
+ * CRITICAL request (100) is served ahead of a LOW one (25) unless the LOW
+ * deadline is more than six hours earlier, which cannot happen for requests
+ * created together.
+ */
+@Slf4j
+@Service
+public class ProactiveMatchingService {
+
+    private final MatchingEngine matchingEngine;
+    private final MatchResultCache matchResultCache;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, MatchTask> queued = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final long urgencyWeightMs;
+    private final int limit;
+
+    public ProactiveMatchingService(MatchingEngine matchingEngine,
+                                    MatchResultCache matchResultCache,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${matching.proactive.pool-size:4}") int poolSize,
+                                    @Value("${matching.proactive.urgency-weight-ms:300000}") long urgencyWeightMs,
+                                    @Value("${matching.proactive.limit:10}") int limit) {
+        this.matchingEngine = matchingEngine;
+        this.matchResultCache = matchResultCache;
+        this.urgencyWeightMs = urgencyWeightMs;
+        this.limit = limit;
+
+        // execute() only: submit() would wrap tasks in non-comparable FutureTasks
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "proactive-match-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("lifeflow.matching.proactive.queued", queued, Map::size)
+                .description("Requests waiting for proactive matching")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a committed request for matching. A request already waiting
+     * in the queue is not queued twice.
+     */
+    public void schedule(BloodRequest request) {
+        MatchTask task = new MatchTask(request, priorityOf(request), sequence.incrementAndGet());
+        if (queued.putIfAbsent(request.getRequestId(), task) != null) return;
+
+        try {
+            executor.execute(task);
+            log.debug("Queued proactive matching for request: {} (priority {})",
+                    request.getRequestId(), task.priority);
+        } catch (RejectedExecutionException e) {
+            queued.remove(request.getRequestId(), task);
+            log.warn("Proactive matching rejected for request: {}", request.getRequestId());
+        }
+    }
+
+    /**
+     * Deadline in epoch millis, pulled forward by urgency; lower runs first
+     */
+    private long priorityOf(BloodRequest request) {
+        long deadline = request.getDeadlineTimestamp() != null
+                ? request.getDeadlineTimestamp().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : Long.MAX_VALUE / 2;
+        int urgency = request.getUrgencyNumericScore() != null ? request.getUrgencyNumericScore() : 0;
+        return deadline - urgency * urgencyWeightMs;
+    }
+
+    private void match(BloodRequest request) {
+        String requestId = request.getRequestId();
+        if (request.isExpired() || matchResultCache.get(requestId, limit) != null) return;
+
+        try {
+            MatchResultCache.Stamp stamp = matchResultCache.stamp();
+            MatchResultDTO result = matchingEngine.findMatchedDonors(request, limit);
+            matchResultCache.put(requestId, request.getBloodTypeNeeded(), limit, result, stamp);
+            log.info("Proactive matching ranked {} donors for request: {}",
+                    result.getDonors().size(), requestId);
+        } catch (Exception e) {
+            log.warn("Proactive matching failed for request: {} - {}", requestId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private final class MatchTask implements Runnable, Comparable<MatchTask> {
+
+        private final BloodRequest request;
+        private final long priority;
+        private final long seq;
+
+        private MatchTask(BloodRequest request, long priority, long seq) {
+            this.request = request;
+            this.priority = priority;
+            this.seq = seq;
+        }
+
+        @Override
+        public void run() {
+            queued.remove(request.getRequestId(), this);
+            match(request);
+        }
+
+        @Override
+        public int compareTo(MatchTask other) {
+            int byPriority = Long.compare(priority, other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(seq, other.seq);
+        }
+    }
+}
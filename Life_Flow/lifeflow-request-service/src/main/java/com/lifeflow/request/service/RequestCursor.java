@@ -0,0 +1,42 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.entity.BloodRequest;
+import com.lifeflow.request.repository.RequestSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset position in the active-request listing, ordered by
+ * (status, deadlineTimestamp, requestId). Encoded as an opaque URL-safe
+ * token so clients do not depend on its layout.
+ */
+public record RequestCursor(BloodRequest.RequestStatus status, LocalDateTime deadlineTimestamp,
+                            String requestId) {
+
+    private static final String SEPARATOR = "|";
+
+    public static RequestCursor after(RequestSummary request) {
+        return new RequestCursor(request.getStatus(), request.getDeadlineTimestamp(),
+                request.getRequestId());
+    }
+
+    public String encode() {
+        String raw = status.name() + SEPARATOR + deadlineTimestamp + SEPARATOR + requestId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RequestCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 3);
+            return new RequestCursor(
+                    BloodRequest.RequestStatus.valueOf(parts[0]),
+                    LocalDateTime.parse(parts[1]),
+                    parts[2]);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor: " + token, e);
+        }
+    }
+}
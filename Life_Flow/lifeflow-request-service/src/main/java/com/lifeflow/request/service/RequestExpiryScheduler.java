@@ -0,0 +1,228 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.entity.BloodRequest;
+import com.lifeflow.request.event.RequestClosedEvent;
+import com.lifeflow.request.event.RequestDeadlineEvent;
+import com.lifeflow.request.repository.BloodRequestRepository;
+import com.lifeflow.request.repository.BloodRequestRepository.RequestDeadline;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fires request deadlines from an in-memory timing wheel instead of polling
+ * for expired requests.
+ *
+ * The wheel is loaded from open requests at startup and kept current as
+ * requests are created and cancelled. Each request gets two timers: an
+ * escalation {@code matching.expiry.escalation-lead-minutes} before the
+ * deadline, which refreshes its matches, and the deadline itself, which
+ * moves it to EXPIRED. Both publish a RequestDeadlineEvent for other hooks.
+ */
+@Slf4j
+@Component
+public class RequestExpiryScheduler {
+
+    private static final Set<BloodRequest.RequestStatus> CLOSED = EnumSet.of(
+            BloodRequest.RequestStatus.FULFILLED,
+            BloodRequest.RequestStatus.CANCELLED,
+            BloodRequest.RequestStatus.EXPIRED);
+    private static final int MAX_RETRY_SHIFT = 6;
+
+    private final BloodRequestRepository requestRepository;
+    private final MatchResultCache matchResultCache;
+    private final ActiveRequestView activeRequestView;
+    private final ProactiveMatchingService proactiveMatchingService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final TimingWheel<DeadlineTimer> wheel;
+    private final Map<String, Integer> expiryFailures = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService handlers;
+    private final long tickMs;
+    private final long escalationLeadMs;
+
+    public RequestExpiryScheduler(BloodRequestRepository requestRepository,
+                                  MatchResultCache matchResultCache,
+                                  ActiveRequestView activeRequestView,
+                                  ProactiveMatchingService proactiveMatchingService,
+                                  ApplicationEventPublisher applicationEventPublisher,
+                                  OutboxService outboxService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${matching.expiry.tick-ms:100}") long tickMs,
+                                  @Value("${matching.expiry.wheel-size:512}") int wheelSize,
+                                  @Value("${matching.expiry.levels:3}") int levels,
+                                  @Value("${matching.expiry.handler-threads:2}") int handlerThreads,
+                                  @Value("${matching.expiry.escalation-lead-minutes:10}") long escalationLeadMinutes) {
+        this.requestRepository = requestRepository;
+        this.matchResultCache = matchResultCache;
+        this.activeRequestView = activeRequestView;
+        this.proactiveMatchingService = proactiveMatchingService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.outboxService = outboxService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tickMs = tickMs;
+        this.escalationLeadMs = TimeUnit.MINUTES.toMillis(escalationLeadMinutes);
+        this.wheel = new TimingWheel<>(tickMs, wheelSize, levels, System.currentTimeMillis());
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "request-expiry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.handlers = Executors.newFixedThreadPool(handlerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "request-expiry-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Load every open deadline, then start turning the wheel. Deadlines that
+     * passed while the service was down fire on the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<RequestDeadline> deadlines = requestRepository.findOpenDeadlines();
+        deadlines.forEach(deadline -> schedule(deadline.getRequestId(), deadline.getDeadlineTimestamp()));
+        log.info("Request expiry wheel loaded with {} open deadlines", deadlines.size());
+
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void track(BloodRequest request) {
+        schedule(request.getRequestId(), request.getDeadlineTimestamp());
+    }
+
+    public void untrack(String requestId) {
+        expiryFailures.remove(requestId);
+        wheel.cancel(new DeadlineTimer(requestId, RequestDeadlineEvent.Type.ESCALATED));
+        wheel.cancel(new DeadlineTimer(requestId, RequestDeadlineEvent.Type.EXPIRED));
+    }
+
+    private void schedule(String requestId, LocalDateTime deadlineTimestamp) {
+        if (deadlineTimestamp == null) return;
+
+        long deadline = deadlineTimestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long escalateAt = deadline - escalationLeadMs;
+        if (escalateAt > System.currentTimeMillis()) {
+            wheel.schedule(new DeadlineTimer(requestId, RequestDeadlineEvent.Type.ESCALATED), escalateAt);
+        }
+        wheel.schedule(new DeadlineTimer(requestId, RequestDeadlineEvent.Type.EXPIRED), deadline);
+    }
+
+    private void tick() {
+        try {
+            for (DeadlineTimer timer : wheel.advance(System.currentTimeMillis())) {
+                handlers.execute(() -> fire(timer));
+            }
+        } catch (Exception e) {
+            log.error("Request expiry wheel tick failed", e);
+        }
+    }
+
+    private void fire(DeadlineTimer timer) {
+        try {
+            if (timer.type() == RequestDeadlineEvent.Type.EXPIRED) {
+                expire(timer.requestId());
+                expiryFailures.remove(timer.requestId());
+            } else {
+                escalate(timer.requestId());
+            }
+        } catch (Exception e) {
+            if (timer.type() == RequestDeadlineEvent.Type.EXPIRED) {
+                retryExpiry(timer, e);
+            } else {
+                log.error("Failed to handle {} deadline for request: {}", timer.type(), timer.requestId(), e);
+            }
+        }
+    }
+
+    /**
+     * The timer has already left the wheel, so put it back with an
+     * exponential back-off (capped at 2^MAX_RETRY_SHIFT ticks); otherwise a
+     * failed transaction, e.g. an optimistic lock conflict with a concurrent
+     * accept, would leave the request open until the next restart.
+     */
+    private void retryExpiry(DeadlineTimer timer, Exception cause) {
+        int failures = expiryFailures.merge(timer.requestId(), 1, Integer::sum);
+        long backoffMs = tickMs << Math.min(failures, MAX_RETRY_SHIFT);
+        wheel.schedule(timer, System.currentTimeMillis() + backoffMs);
+        log.warn("Failed to expire request: {} (attempt {}), retrying in {} ms",
+                timer.requestId(), failures, backoffMs, cause);
+    }
+
+    /**
+     * Move a still-open request to EXPIRED; requests closed in the meantime
+     * are left alone
+     */
+    private void expire(String requestId) {
+        BloodRequest expired = transactionTemplate.execute(status -> {
+            BloodRequest request = requestRepository.findById(requestId).orElse(null);
+            if (request == null || CLOSED.contains(request.getStatus())) return null;
+
+            request.setStatus(BloodRequest.RequestStatus.EXPIRED);
+            outboxService.enqueue(new RequestClosedEvent(requestId, BloodRequest.RequestStatus.EXPIRED));
+            return requestRepository.save(request);
+        });
+        if (expired == null) return;
+
+        activeRequestView.remove(requestId);
+        matchResultCache.invalidate(requestId);
+        applicationEventPublisher.publishEvent(
+                new RequestClosedEvent(requestId, BloodRequest.RequestStatus.EXPIRED));
+        publish(expired, RequestDeadlineEvent.Type.EXPIRED);
+        log.warn("Request expired at deadline: {} - Blood Type: {} - Urgency: {}",
+                requestId, expired.getBloodTypeNeeded(), expired.getUrgencyLevel());
+    }
+
+    /**
+     * Re-run matching for a request nearing its deadline, since its time
+     * budget and the donor pool have likely changed
+     */
+    private void escalate(String requestId) {
+        BloodRequest request = requestRepository.findById(requestId).orElse(null);
+        if (request == null || CLOSED.contains(request.getStatus())) return;
+
+        matchResultCache.invalidate(requestId);
+        proactiveMatchingService.schedule(request);
+        publish(request, RequestDeadlineEvent.Type.ESCALATED);
+        log.warn("Request nearing deadline: {} - {} minutes remaining",
+                requestId, request.getRemainingMinutes());
+    }
+
+    private void publish(BloodRequest request, RequestDeadlineEvent.Type type) {
+        applicationEventPublisher.publishEvent(new RequestDeadlineEvent(request.getRequestId(), type,
+                request.getBloodTypeNeeded(), request.getUrgencyLevel()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    private record DeadlineTimer(String requestId, RequestDeadlineEvent.Type type) {
+    }
+}
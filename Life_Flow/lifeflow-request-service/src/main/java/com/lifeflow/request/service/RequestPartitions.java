@@ -0,0 +1,81 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.repository.BloodRequestRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Monthly partitions of blood_requests and request_responses.
+ *
+ * Tables are range-partitioned on their time-ordered ids, so primary keys
+ * stay the single id column and lookups by id touch one partition. Status
+ * queries carry no time bound, since an open request must never become
+ * invisible; they read the few hot partitions through the
+ * (status, deadline, request_id) index instead.
+ *
+ * A nightly job creates partitions ahead of time and moves months older
+ * than {@code requests.partitioning.hot-months} that have no open requests
+ * into the compressed archive tables (see 04_request_service_partitioning.sql),
+ * so the number of hot partitions stays constant as history grows.
+ */
+@Slf4j
+@Component
+public class RequestPartitions {
+
+    private final BloodRequestRepository requestRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private final int hotMonths;
+    private final String archiveTablespace;
+
+    public RequestPartitions(BloodRequestRepository requestRepository,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${requests.partitioning.enabled:false}") boolean enabled,
+                             @Value("${requests.partitioning.months-ahead:3}") int monthsAhead,
+                             @Value("${requests.partitioning.hot-months:3}") int hotMonths,
+                             @Value("${requests.partitioning.archive-tablespace:pg_default}") String archiveTablespace) {
+        this.requestRepository = requestRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+        this.hotMonths = Math.max(1, hotMonths);
+        this.archiveTablespace = archiveTablespace;
+    }
+
+    /**
+     * Create upcoming partitions, then archive months past the hot window.
+     * Each step commits on its own so a failed archive never blocks the
+     * partitions new rows need.
+     */
+    @Scheduled(cron = "${requests.partitioning.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        if (!enabled) return;
+
+        try {
+            LocalDate thisMonth = LocalDate.now().withDayOfMonth(1);
+            Integer created = transactionTemplate.execute(status ->
+                    requestRepository.createMonthlyPartitions(thisMonth, monthsAhead + 1));
+            log.info("Created {} request partitions through {}", created, thisMonth.plusMonths(monthsAhead));
+        } catch (Exception e) {
+            log.error("Failed to create request partitions", e);
+        }
+
+        try {
+            long start = System.nanoTime();
+            Integer archived = transactionTemplate.execute(status ->
+                    requestRepository.archivePartitions(hotMonths, archiveTablespace));
+            log.info("Archived {} requests older than {} months in {}ms", archived, hotMonths,
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (Exception e) {
+            log.error("Failed to archive request partitions", e);
+        }
+    }
+}
@@ -1,31 +1,64 @@
 package com.lifeflow.request.service;
 
-import com.lifeflow.common.event.EventPublisher;
+import com.lifeflow.common.event.DomainEvent;
+import com.lifeflow.common.id.IdGenerator;
 import com.lifeflow.request.dto.CreateRequestDTO;
+import com.lifeflow.request.dto.CursorPageDTO;
+import com.lifeflow.request.dto.MatchResultDTO;
+import com.lifeflow.request.dto.RequestSummaryDTO;
 import com.lifeflow.request.entity.BloodRequest;
 import com.lifeflow.request.entity.RequestResponse;
 import com.lifeflow.request.event.BloodNeededEvent;
 import com.lifeflow.request.event.DonorAcceptedEvent;
+import com.lifeflow.request.event.RequestClosedEvent;
 import com.lifeflow.request.repository.BloodRequestRepository;
 import com.lifeflow.request.repository.RequestResponseRepository;
+import com.lifeflow.request.repository.RequestSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RequestService {
 
+    private static final List<BloodRequest.RequestStatus> ACTIVE_STATUSES = List.of(
+            BloodRequest.RequestStatus.PENDING,
+            BloodRequest.RequestStatus.MATCHED,
+            BloodRequest.RequestStatus.ACCEPTED);
+    private static final Set<BloodRequest.RequestStatus> ACTIVE_STATUS_SET = EnumSet.copyOf(ACTIVE_STATUSES);
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final BloodRequestRepository requestRepository;
     private final RequestResponseRepository responseRepository;
-    private final EventPublisher eventPublisher;
+    private final OutboxService outboxService;
     private final MatchingEngine matchingEngine;
+    private final MatchResultCache matchResultCache;
+    private final ProactiveMatchingService proactiveMatchingService;
+    private final RequestExpiryScheduler requestExpiryScheduler;
+    private final ActiveRequestView activeRequestView;
+    private final MeterRegistry meterRegistry;
+    private final IdGenerator idGenerator;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     /**
      * Create emergency blood request and trigger donor matching
@@ -35,86 +68,124 @@ public class RequestService {
         
         log.info("Creating emergency blood request for hospital: {}", dto.getHospitalId());
         
-        // Generate unique request ID
-        String requestId = "req-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-        
-        // Calculate deadline
-        LocalDateTime deadline = LocalDateTime.now()
-                .plusMinutes(dto.getDeadlineMinutes());
-        
-        // Create blood request entity
-        BloodRequest request = BloodRequest.builder()
-                .requestId(requestId)
-                .hospitalId(dto.getHospitalId())
-                .bloodTypeNeeded(BloodRequest.BloodType.valueOf(dto.getBloodType()))
-                .unitsRequired(dto.getUnitsRequired())
-                .urgencyLevel(BloodRequest.UrgencyLevel.valueOf(dto.getUrgencyLevel()))
-                .urgencyNumericScore(calculateUrgencyScore(dto.getUrgencyLevel()))
-                .patientAge(dto.getPatientAge())
-                .patientCondition(dto.getPatientCondition())
-                .deadlineMinutes(dto.getDeadlineMinutes())
-                .deadlineTimestamp(deadline)
-                .status(BloodRequest.RequestStatus.PENDING)
-                .gpsLocationHospital(dto.getGpsLocation())
-                .build();
+        long start = System.nanoTime();
+        BloodRequest request = buildRequest(dto);
         
         // Save to database
         BloodRequest savedRequest = requestRepository.save(request);
         
         log.info("Emergency request created with ID: {} - Blood Type: {} - Deadline: {}",
-                requestId, dto.getBloodType(), deadline);
+                savedRequest.getRequestId(), dto.getBloodType(), savedRequest.getDeadlineTimestamp());
         
-        // Publish event to trigger donor matching
-        BloodNeededEvent event = BloodNeededEvent.builder()
-                .requestId(requestId)
-                .bloodType(dto.getBloodType())
-                .unitsRequired(dto.getUnitsRequired())
-                .urgencyLevel(dto.getUrgencyLevel())
-                .hospitalId(dto.getHospitalId())
-                .deadlineMinutes(dto.getDeadlineMinutes())
-                .timestamp(LocalDateTime.now())
-                .build();
+        // Queue event to trigger donor matching; the outbox relay publishes it after commit
+        outboxService.enqueue(buildBloodNeededEvent(savedRequest, dto));
         
-        eventPublisher.publishEvent(event);
+        log.info("BloodNeededEvent queued for request: {}", savedRequest.getRequestId());
         
-        log.info("BloodNeededEvent published for request: {}", requestId);
+        // Warm the match cache as soon as the request is visible to other readers
+        afterCommit(() -> {
+            onRequestsCommitted(List.of(savedRequest));
+            recordCreation("single", 1, start);
+        });
         
         return savedRequest;
     }
 
     /**
-     * Accept donor response and initiate pickup scheduling
+     * Create many emergency blood requests in one transaction. Rows and their
+     * BloodNeededEvents are written with JDBC batch inserts; either all
+     * requests are created or none are.
      */
     @Transactional
-    public void acceptResponse(String responseId, Integer arrivalMinutes) {
+    public List<BloodRequest> createEmergencyRequests(List<CreateRequestDTO> dtos) {
+        
+        log.info("Creating {} emergency blood requests in bulk", dtos.size());
+        
+        long start = System.nanoTime();
+        List<BloodRequest> requests = dtos.stream()
+                .map(this::buildRequest)
+                .toList();
+        
+        List<BloodRequest> savedRequests = requestRepository.saveAll(requests);
+        
+        List<DomainEvent> events = new ArrayList<>(savedRequests.size());
+        for (int i = 0; i < savedRequests.size(); i++) {
+            events.add(buildBloodNeededEvent(savedRequests.get(i), dtos.get(i)));
+        }
+        outboxService.enqueueAll(events);
+        
+        // Timed after commit, since the batched inserts only run at flush
+        afterCommit(() -> {
+            onRequestsCommitted(savedRequests);
+            long elapsedMs = recordCreation("bulk", savedRequests.size(), start);
+            log.info("Bulk created {} emergency requests in {}ms", savedRequests.size(), elapsedMs);
+        });
+        
+        return savedRequests;
+    }
+
+    /**
+     * Accept donor response and initiate pickup scheduling.
+     *
+     * The response and its request are read in one query, and acceptance is
+     * two conditional updates: the response must still be PENDING, and the
+     * request must still be open and short of donors. Concurrent acceptances
+     * therefore never overshoot the donors needed, and a loser fails without
+     * side effects instead of overwriting the winner.
+     */
+    @Transactional
+    public void acceptResponse(String requestId, String responseId, Integer arrivalMinutes) {
         
         log.info("Processing acceptance for response: {} with arrival ETA: {} minutes",
                 responseId, arrivalMinutes);
         
-        RequestResponse response = responseRepository.findById(responseId)
+        RequestResponse response = responseRepository.findWithRequestById(responseId)
                 .orElseThrow(() -> new RuntimeException("Response not found: " + responseId));
+        BloodRequest request = response.getRequest();
+        
+        if (!request.getRequestId().equals(requestId)) {
+            throw new RuntimeException("Response " + responseId + " does not belong to request: " + requestId);
+        }
         
-        // Update response status
-        response.setResponseStatus(RequestResponse.ResponseStatus.ACCEPTED);
-        response.setConfirmedByDonorAt(LocalDateTime.now());
-        response.setScheduledPickupTime(LocalDateTime.now().plusMinutes(arrivalMinutes));
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime pickupTime = now.plusMinutes(arrivalMinutes);
         
-        responseRepository.save(response);
+        // Claim the response first, so a duplicate accept changes nothing
+        if (responseRepository.acceptIfPending(responseId, arrivalMinutes, pickupTime, now) == 0) {
+            recordAcceptance("already_handled");
+            throw new RuntimeException("Response already handled: " + responseId);
+        }
         
-        // Publish donor accepted event
+        // Then take one of the request's open donor slots; failing rolls back the claim
+        if (requestRepository.acceptDonorIfNeeded(requestId, request.getDonorsNeeded(), now) == 0) {
+            recordAcceptance("not_needed");
+            throw new RuntimeException("Request no longer needs donors: " + requestId);
+        }
+        
+        // Queue donor accepted event for the outbox relay
         DonorAcceptedEvent event = DonorAcceptedEvent.builder()
-                .requestId(response.getRequest().getRequestId())
+                .requestId(requestId)
                 .responseId(responseId)
-                .donorId(response.getDonor().getDonorId())
+                .donorId(response.getDonorId())
                 .arrivalEtaMinutes(arrivalMinutes)
-                .scheduledPickupTime(response.getScheduledPickupTime())
-                .timestamp(LocalDateTime.now())
+                .scheduledPickupTime(pickupTime)
+                .timestamp(now)
                 .build();
         
-        eventPublisher.publishEvent(event);
+        outboxService.enqueue(event);
+        
+        // The updates bypassed the (now cleared) persistence context; mirror them on the detached copy
+        request.setStatus(requestRepository.findStatusById(requestId).orElse(request.getStatus()));
+        request.setAcceptedDonorCount(request.getAcceptedDonorCount() + 1);
         
-        log.info("DonorAcceptedEvent published for response: {} and request: {}",
-                responseId, response.getRequest().getRequestId());
+        afterCommit(() -> {
+            recordAcceptance("accepted");
+            activeRequestView.upsert(request);
+            matchResultCache.invalidate(requestId);
+        });
+        
+        log.info("DonorAcceptedEvent queued for response: {} and request: {} ({}/{} donors)",
+                responseId, requestId, request.getAcceptedDonorCount(), request.getDonorsNeeded());
     }
 
     /**
@@ -130,14 +201,79 @@ public class RequestService {
     /**
      * Get all active requests
      */
-    public List<BloodRequest> getActiveRequests() {
+    public List<RequestSummaryDTO> getActiveRequests() {
         log.info("Fetching all active requests");
         
-        return requestRepository.findByStatusIn(List.of(
-                BloodRequest.RequestStatus.PENDING,
-                BloodRequest.RequestStatus.MATCHED,
-                BloodRequest.RequestStatus.ACCEPTED
-        ));
+        List<RequestSummary> requests = activeRequestView.isReady()
+                ? activeRequestView.findByStatusIn(ACTIVE_STATUS_SET)
+                : requestRepository.findSummariesByStatusIn(ACTIVE_STATUSES, Pageable.unpaged());
+        return toSummaryDTOs(requests);
+    }
+
+    /**
+     * Get active requests of one hospital, earliest deadline first
+     */
+    public List<RequestSummaryDTO> getActiveRequestsByHospital(String hospitalId) {
+        log.info("Fetching active requests for hospital: {}", hospitalId);
+        
+        List<RequestSummary> requests = activeRequestView.isReady()
+                ? activeRequestView.findByHospital(hospitalId, ACTIVE_STATUS_SET)
+                : requestRepository.findActiveSummariesByHospitalId(hospitalId);
+        return toSummaryDTOs(requests);
+    }
+
+    /**
+     * Get open critical requests, earliest deadline first
+     */
+    public List<RequestSummaryDTO> getCriticalRequests() {
+        log.info("Fetching critical requests");
+        
+        LocalDateTime now = LocalDateTime.now();
+        List<RequestSummary> requests = activeRequestView.isReady()
+                ? activeRequestView.findCritical(now)
+                : requestRepository.findCriticalSummaries(now);
+        return toSummaryDTOs(requests);
+    }
+
+    /**
+     * One keyset page of active requests, ordered by status, deadline and id.
+     * Pass the returned cursor back to continue after the last item.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<RequestSummaryDTO> getActiveRequestPage(String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        // Fetch one extra row to know whether another page follows
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        List<RequestSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = requestRepository.findSummariesByStatusIn(ACTIVE_STATUSES, page);
+        } else {
+            RequestCursor after = RequestCursor.decode(cursor);
+            rows = requestRepository.findSummaryPageAfter(ACTIVE_STATUSES, after.status(),
+                    after.deadlineTimestamp(), after.requestId(), page);
+        }
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<RequestSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+        
+        return CursorPageDTO.<RequestSummaryDTO>builder()
+                .items(toSummaryDTOs(items))
+                .nextCursor(hasMore ? RequestCursor.after(items.get(items.size() - 1)).encode() : null)
+                .size(items.size())
+                .build();
+    }
+
+    /**
+     * Hand every active request to {@code consumer} from a database cursor.
+     * Rows are read as summaries rather than managed entities, so memory
+     * stays flat however large the backlog is.
+     */
+    @Transactional(readOnly = true)
+    public void streamActiveRequests(Consumer<RequestSummaryDTO> consumer) {
+        try (Stream<RequestSummary> requests = requestRepository.streamSummariesByStatusIn(ACTIVE_STATUSES)) {
+            requests.map(RequestSummaryDTO::fromSummary).forEach(consumer);
+        }
     }
 
     /**
@@ -154,19 +290,145 @@ public class RequestService {
         
         requestRepository.save(request);
         
+        RequestClosedEvent closed = new RequestClosedEvent(requestId, BloodRequest.RequestStatus.CANCELLED);
+        outboxService.enqueue(closed);
+        
+        afterCommit(() -> {
+            activeRequestView.remove(requestId);
+            matchResultCache.invalidate(requestId);
+            requestExpiryScheduler.untrack(requestId);
+            applicationEventPublisher.publishEvent(closed);
+        });
+        
         log.info("Request cancelled: {}", requestId);
     }
 
     /**
-     * Get matched donors for a request
+     * Get the top {@code limit} matched donors for a request
      */
-    public List<?> getMatchedDonors(String requestId) {
-        log.info("Retrieving matched donors for request: {}", requestId);
+    public MatchResultDTO getMatchedDonors(String requestId, int limit) {
+        log.info("Retrieving top {} matched donors for request: {}", limit, requestId);
+        
+        MatchResultDTO cached = matchResultCache.get(requestId, limit);
+        if (cached != null) {
+            log.debug("Serving cached matched donors for request: {}", requestId);
+            return cached;
+        }
         
+        MatchResultCache.Stamp stamp = matchResultCache.stamp();
         BloodRequest request = getRequestById(requestId);
         
         // Call matching engine to get ranked donors
-        return matchingEngine.findMatchedDonors(request);
+        MatchResultDTO result = matchingEngine.findMatchedDonors(request, limit);
+        matchResultCache.put(requestId, request.getBloodTypeNeeded(), limit, result, stamp);
+        
+        return result;
+    }
+
+    /**
+     * Build a new PENDING request entity from the submitted form
+     */
+    private BloodRequest buildRequest(CreateRequestDTO dto) {
+        
+        // Time-ordered, so new rows append to the primary key index
+        String requestId = idGenerator.nextId("req-");
+        
+        // Calculate deadline
+        LocalDateTime deadline = LocalDateTime.now()
+                .plusMinutes(dto.getDeadlineMinutes());
+        
+        return BloodRequest.builder()
+                .requestId(requestId)
+                .hospitalId(dto.getHospitalId())
+                .bloodTypeNeeded(BloodRequest.BloodType.valueOf(dto.getBloodType()))
+                .unitsRequired(dto.getUnitsRequired())
+                .urgencyLevel(BloodRequest.UrgencyLevel.valueOf(dto.getUrgencyLevel()))
+                .urgencyNumericScore(calculateUrgencyScore(dto.getUrgencyLevel()))
+                .patientAge(dto.getPatientAge())
+                .patientCondition(dto.getPatientCondition())
+                .deadlineMinutes(dto.getDeadlineMinutes())
+                .deadlineTimestamp(deadline)
+                .status(BloodRequest.RequestStatus.PENDING)
+                .gpsLocationHospital(dto.getGpsLocation())
+                .build();
+    }
+
+    private BloodNeededEvent buildBloodNeededEvent(BloodRequest request, CreateRequestDTO dto) {
+        return BloodNeededEvent.builder()
+                .requestId(request.getRequestId())
+                .bloodType(dto.getBloodType())
+                .unitsRequired(dto.getUnitsRequired())
+                .urgencyLevel(dto.getUrgencyLevel())
+                .hospitalId(dto.getHospitalId())
+                .deadlineMinutes(dto.getDeadlineMinutes())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private List<RequestSummaryDTO> toSummaryDTOs(List<RequestSummary> summaries) {
+        return summaries.stream()
+                .map(RequestSummaryDTO::fromSummary)
+                .toList();
+    }
+
+    /**
+     * Start proactive matching and deadline tracking for committed requests
+     */
+    private void onRequestsCommitted(List<BloodRequest> requests) {
+        for (BloodRequest request : requests) {
+            activeRequestView.upsert(request);
+            proactiveMatchingService.schedule(request);
+            requestExpiryScheduler.track(request);
+        }
+    }
+
+    /**
+     * Record creation latency, including commit, and volume per path (single
+     * vs bulk) so their throughput can be compared; returns elapsed millis
+     */
+    private long recordCreation(String mode, int count, long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        Timer.builder("lifeflow.requests.create")
+                .description("Duration of request creation calls")
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("lifeflow.requests.created")
+                .description("Requests created")
+                .tag("mode", mode)
+                .register(meterRegistry)
+                .increment(count);
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Count acceptance attempts by outcome, so contention under acceptance
+     * storms shows up as already_handled / not_needed rates
+     */
+    private void recordAcceptance(String outcome) {
+        Counter.builder("lifeflow.requests.accept")
+                .description("Donor acceptance attempts")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Run an action once the current transaction commits, or immediately
+     * when there is no transaction
+     */
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
     /**
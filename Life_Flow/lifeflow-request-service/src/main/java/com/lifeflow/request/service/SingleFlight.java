@@ -0,0 +1,114 @@
+package com.lifeflow.request.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Merges concurrent identical calls into one in-flight call.
+ *
+ * The first caller for a key runs the loader on the given executor; callers
+ * arriving while it runs, or within {@code freshnessMs} of a successful
+ * completion, share its result. Failed calls are not shared once complete,
+ * and a call still running after {@code maxInFlightMs} is treated as hung:
+ * new callers start a fresh call and {@link #evictStale()} fails it.
+ * Each caller gets its own dependent future, so timeouts or cancellation
+ * applied by one caller never affect the others.
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final long freshnessNanos;
+    private final long maxInFlightNanos;
+    private final LongSupplier nanoClock;
+
+    SingleFlight(Executor executor, long freshnessMs, long maxInFlightMs) {
+        this(executor, freshnessMs, maxInFlightMs, System::nanoTime);
+    }
+
+    SingleFlight(Executor executor, long freshnessMs, long maxInFlightMs, LongSupplier nanoClock) {
+        this.executor = executor;
+        this.freshnessNanos = TimeUnit.MILLISECONDS.toNanos(freshnessMs);
+        this.maxInFlightNanos = TimeUnit.MILLISECONDS.toNanos(maxInFlightMs);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Result of the in-flight or fresh call for {@code key}, starting a new
+     * call with {@code loader} if there is none. {@code merged} is run when
+     * the caller joins an existing call.
+     */
+    CompletableFuture<V> call(K key, Supplier<V> loader, Runnable merged) {
+        Flight<V> current = flights.get(key);
+        if (current == null || !isShareable(current)) {
+            Flight<V> started = new Flight<>(nanoClock.getAsLong());
+            current = flights.compute(key, (k, existing) ->
+                    existing != null && isShareable(existing) ? existing : started);
+
+            if (current == started) {
+                try {
+                    CompletableFuture.supplyAsync(loader, executor).whenComplete((value, error) -> {
+                        started.completedAtNanos = nanoClock.getAsLong();
+                        if (error != null) {
+                            flights.remove(key, started);
+                            started.future.completeExceptionally(error);
+                        } else {
+                            started.future.complete(value);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    // Never leave a flight behind that nothing will complete
+                    flights.remove(key, started);
+                    started.future.completeExceptionally(e);
+                }
+                return started.future.copy();
+            }
+        }
+
+        merged.run();
+        return current.future.copy();
+    }
+
+    /**
+     * Drop completed calls that are past the freshness window, and fail
+     * calls that have been in flight longer than the maximum
+     */
+    void evictStale() {
+        flights.values().removeIf(flight -> {
+            if (isShareable(flight)) return false;
+            if (!flight.future.isDone()) {
+                flight.future.completeExceptionally(new TimeoutException(
+                        "Call still in flight after " + TimeUnit.NANOSECONDS.toMillis(maxInFlightNanos) + "ms"));
+            }
+            return true;
+        });
+    }
+
+    int inFlight() {
+        return (int) flights.values().stream().filter(flight -> !flight.future.isDone()).count();
+    }
+
+    private boolean isShareable(Flight<V> flight) {
+        long now = nanoClock.getAsLong();
+        if (!flight.future.isDone()) return now - flight.startedAtNanos < maxInFlightNanos;
+        return !flight.future.isCompletedExceptionally()
+                && now - flight.completedAtNanos < freshnessNanos;
+    }
+
+    private static final class Flight<V> {
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+        private final long startedAtNanos;
+        private volatile long completedAtNanos;
+
+        private Flight(long startedAtNanos) {
+            this.startedAtNanos = startedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.lifeflow.request.service;
+
+import com.lifeflow.request.entity.BloodRequest.BloodType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-blood-type stock levels built from inventory-service stock events.
+ *
+ * Matching asks the snapshot first and only calls inventory-service when
+ * there is no level for the blood type, the level is older than
+ * {@code matching.stock-snapshot.max-age-ms}, or the request lands within
+ * {@code matching.stock-snapshot.near-threshold-units} of the point where
+ * stock stops covering it (requested units plus the safety threshold).
+ */
+@Slf4j
+@Component
+public class StockSnapshot {
+
+    private final Map<BloodType, Level> levels = new ConcurrentHashMap<>();
+    private final long maxAgeNanos;
+    private final double nearThresholdUnits;
+    private final Counter localDecisions;
+    private final Counter remoteFallbacks;
+
+    public StockSnapshot(MeterRegistry meterRegistry,
+                         @Value("${matching.stock-snapshot.max-age-ms:60000}") long maxAgeMs,
+                         @Value("${matching.stock-snapshot.near-threshold-units:2}") double nearThresholdUnits) {
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+        this.nearThresholdUnits = nearThresholdUnits;
+        this.localDecisions = Counter.builder("lifeflow.matching.stock.snapshot")
+                .tag("result", "local")
+                .register(meterRegistry);
+        this.remoteFallbacks = Counter.builder("lifeflow.matching.stock.snapshot")
+                .tag("result", "remote")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether stock covers the request, or null when the snapshot cannot
+     * decide and inventory-service must be asked
+     */
+    public Boolean checkStock(BloodType bloodType, Double units) {
+        Level level = levels.get(bloodType);
+        if (level == null || units == null || System.nanoTime() - level.updatedAtNanos > maxAgeNanos) {
+            remoteFallbacks.increment();
+            return null;
+        }
+
+        double headroom = level.availableUnits - units - level.thresholdUnits;
+        if (Math.abs(headroom) < nearThresholdUnits) {
+            remoteFallbacks.increment();
+            return null;
+        }
+
+        localDecisions.increment();
+        return headroom >= 0;
+    }
+
+    /**
+     * Record an absolute stock level reported by inventory-service
+     */
+    public void update(BloodType bloodType, double availableUnits, Double thresholdUnits) {
+        levels.compute(bloodType, (type, current) -> new Level(availableUnits,
+                thresholdOf(thresholdUnits, current), System.nanoTime()));
+    }
+
+    /**
+     * Apply a reservation (negative) or release (positive) to a known level.
+     * Without a known level the change is ignored and the next check goes remote.
+     * The level keeps its age: only an absolute level renews freshness, so
+     * drift from missed deltas is bounded by the max age.
+     */
+    public void adjust(BloodType bloodType, double deltaUnits, Double thresholdUnits) {
+        levels.computeIfPresent(bloodType, (type, current) -> new Level(
+                Math.max(0, current.availableUnits + deltaUnits),
+                thresholdOf(thresholdUnits, current), current.updatedAtNanos));
+    }
+
+    /**
+     * Forget the level of a blood type, forcing the next check to go remote
+     */
+    public void invalidate(BloodType bloodType) {
+        if (levels.remove(bloodType) != null) {
+            log.debug("Stock snapshot dropped for blood type: {}", bloodType);
+        }
+    }
+
+    private static double thresholdOf(Double thresholdUnits, Level current) {
+        if (thresholdUnits != null) return thresholdUnits;
+        return current != null ? current.thresholdUnits : 0;
+    }
+
+    private record Level(double availableUnits, double thresholdUnits, long updatedAtNanos) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.lifeflow.request.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel.
+ *
+ * Level 0 has {@code wheelSize} buckets of {@code tickMs}; each higher level
+ * has buckets one full lower wheel wide. A timer goes into the lowest level
+ * whose span covers its delay and cascades down as its bucket comes round,
+ * so scheduling, cancelling and expiring are O(1) per timer regardless of
+ * how many are pending. Timers beyond the top level wait in an overflow set
+ * that is re-placed each time the top level turns.
+ *
+ * All methods are synchronized; a single thread is expected to drive
+ * {@link #advance(long)}.
+ */
+final class TimingWheel<K> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] levelTickMs;
+    private final List<Map<K, Long>[]> levels = new ArrayList<>();
+    private final Map<K, Long> overflow = new LinkedHashMap<>();
+    private final Map<K, Slot> slots = new HashMap<>();
+    private final List<K> due = new ArrayList<>();
+    private long currentMs;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMs, int wheelSize, int levelCount, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levelTickMs = new long[levelCount];
+        this.currentMs = startMs - Math.floorMod(startMs, tickMs);
+
+        long levelTick = tickMs;
+        for (int level = 0; level < levelCount; level++) {
+            levelTickMs[level] = levelTick;
+            Map<K, Long>[] buckets = new Map[wheelSize];
+            for (int i = 0; i < wheelSize; i++) buckets[i] = new LinkedHashMap<>();
+            levels.add(buckets);
+            levelTick = Math.multiplyExact(levelTick, wheelSize);
+        }
+    }
+
+    /**
+     * Schedule {@code key} to fire at {@code expiresAtMs}, replacing any
+     * timer already pending for it
+     */
+    synchronized void schedule(K key, long expiresAtMs) {
+        cancel(key);
+        place(key, expiresAtMs);
+    }
+
+    synchronized boolean cancel(K key) {
+        Slot slot = slots.remove(key);
+        if (slot == null) return false;
+
+        if (slot.level < 0) due.remove(key);
+        else if (slot.level == levelTickMs.length) overflow.remove(key);
+        else levels.get(slot.level)[slot.bucket].remove(key);
+        return true;
+    }
+
+    /**
+     * Move the wheel forward to {@code nowMs} and return the keys that fell due
+     */
+    synchronized List<K> advance(long nowMs) {
+        while (currentMs + tickMs <= nowMs) {
+            currentMs += tickMs;
+
+            // Cascade every level whose bucket boundary was just crossed, top down
+            for (int level = levelTickMs.length - 1; level >= 1; level--) {
+                if (currentMs % levelTickMs[level] == 0) {
+                    if (level == levelTickMs.length - 1) replace(overflow);
+                    replace(levels.get(level)[bucketOf(level, currentMs)]);
+                }
+            }
+
+            Map<K, Long> bucket = levels.get(0)[bucketOf(0, currentMs)];
+            for (K key : bucket.keySet()) {
+                slots.remove(key);
+                due.add(key);
+            }
+            bucket.clear();
+        }
+
+        if (due.isEmpty()) return List.of();
+        List<K> fired = new ArrayList<>(due);
+        for (K key : fired) slots.remove(key);
+        due.clear();
+        return fired;
+    }
+
+    synchronized int size() {
+        return slots.size();
+    }
+
+    private void replace(Map<K, Long> bucket) {
+        if (bucket.isEmpty()) return;
+        Map<K, Long> entries = new LinkedHashMap<>(bucket);
+        bucket.clear();
+        entries.forEach(this::place);
+    }
+
+    private void place(K key, long expiresAtMs) {
+        // Fire on the first tick boundary at or after the deadline, never early
+        long fireAtMs = expiresAtMs + Math.floorMod(-expiresAtMs, tickMs);
+        long delay = fireAtMs - currentMs;
+        if (delay <= 0) {
+            due.add(key);
+            slots.put(key, new Slot(-1, -1));
+            return;
+        }
+
+        for (int level = 0; level < levelTickMs.length; level++) {
+            if (delay < levelTickMs[level] * wheelSize) {
+                int bucket = bucketOf(level, fireAtMs);
+                levels.get(level)[bucket].put(key, expiresAtMs);
+                slots.put(key, new Slot(level, bucket));
+                return;
+            }
+        }
+
+        overflow.put(key, expiresAtMs);
+        slots.put(key, new Slot(levelTickMs.length, -1));
+    }
+
+    private int bucketOf(int level, long timeMs) {
+        return (int) Math.floorMod(Math.floorDiv(timeMs, levelTickMs[level]), (long) wheelSize);
+    }
+
+    private record Slot(int level, int bucket) {
+    }
+}
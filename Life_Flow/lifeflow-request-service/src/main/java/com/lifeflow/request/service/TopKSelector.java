@@ -0,0 +1,112 @@
+package com.lifeflow.request.service;
+
+/**
+ * Bounded top-K selection over primitive scores.
+ *
+ * Keeps a fixed-size min-heap of (score, index) pairs whose root is the
+ * weakest entry kept so far, so selecting K out of N costs O(N log K)
+ * time and O(K) memory. Ordering matches a stable descending sort:
+ * higher score first, and on equal scores the lower (earlier) index wins.
+ */
+public class TopKSelector {
+
+    private final int[] scores;
+    private final int[] indices;
+    private int size;
+
+    public TopKSelector(int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive: " + k);
+        }
+        this.scores = new int[k];
+        this.indices = new int[k];
+    }
+
+    /**
+     * Offer a candidate; it is kept only if it ranks inside the current top K
+     */
+    public void offer(int score, int index) {
+        if (size < scores.length) {
+            scores[size] = score;
+            indices[size] = index;
+            siftUp(size++);
+        } else if (ranksAbove(score, index, scores[0], indices[0])) {
+            scores[0] = score;
+            indices[0] = index;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == scores.length;
+    }
+
+    /**
+     * Score of the weakest candidate currently kept; only meaningful when non-empty
+     */
+    public int weakestScore() {
+        return scores[0];
+    }
+
+    /**
+     * Candidate indices of the top K, best first. Drains the selector.
+     */
+    public int[] drainIndices() {
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = indices[0];
+            size--;
+            scores[0] = scores[size];
+            indices[0] = indices[size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    private static boolean ranksAbove(int score, int index, int otherScore, int otherIndex) {
+        return score > otherScore || (score == otherScore && index < otherIndex);
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!ranksAbove(scores[parent], indices[parent], scores[position], indices[position])) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int left = 2 * position + 1;
+            if (left >= size) break;
+
+            int weakest = left;
+            int right = left + 1;
+            if (right < size && ranksAbove(scores[left], indices[left], scores[right], indices[right])) {
+                weakest = right;
+            }
+            if (!ranksAbove(scores[position], indices[position], scores[weakest], indices[weakest])) {
+                break;
+            }
+            swap(position, weakest);
+            position = weakest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+
+        int index = indices[a];
+        indices[a] = indices[b];
+        indices[b] = index;
+    }
+}
@@ -0,0 +1,61 @@
+package com.lifeflow.request.util;
+
+/**
+ * Geographic helpers for "lat,lon" location strings
+ */
+public final class GeoUtils {
+
+    private static final double EARTH_RADIUS_KM = 6371;
+
+    private GeoUtils() {
+    }
+
+    /**
+     * Parse a "lat,lon" location into {lat, lon}, or null when missing or malformed
+     */
+    public static double[] parseLocation(String location) {
+        if (location == null) return null;
+
+        int comma = location.indexOf(',');
+        if (comma < 0) return null;
+
+        try {
+            double latitude = Double.parseDouble(location.substring(0, comma).trim());
+            double longitude = Double.parseDouble(location.substring(comma + 1).trim());
+            if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) return null;
+            return new double[] {latitude, longitude};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Great-circle (haversine) distance in km between two "lat,lon" locations,
+     * or null when either location cannot be parsed
+     */
+    public static Double haversineKm(String origin, String destination) {
+        double[] from = parseLocation(origin);
+        double[] to = parseLocation(destination);
+        if (from == null || to == null) return null;
+
+        return haversineKm(from[0], from[1], to[0], to[1]);
+    }
+
+    /**
+     * Great-circle (haversine) distance in km between two coordinates
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double lat1Rad = Math.toRadians(lat1);
+        double lat2Rad = Math.toRadians(lat2);
+        double deltaLat = Math.toRadians(lat2 - lat1);
+        double deltaLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(deltaLat / 2) * Math.sin(deltaLat / 2) +
+                   Math.cos(lat1Rad) * Math.cos(lat2Rad) *
+                   Math.sin(deltaLon / 2) * Math.sin(deltaLon / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+}
@@ -0,0 +1,144 @@
+package com.lifeflow.request.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private static final long FRESHNESS_MS = 100;
+    private static final long MAX_IN_FLIGHT_MS = 1000;
+
+    private final Queue<Runnable> pending = new ArrayDeque<>();
+    private final Executor executor = pending::add;
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger merges = new AtomicInteger();
+
+    private final SingleFlight<String, Integer> flights =
+            new SingleFlight<>(executor, FRESHNESS_MS, MAX_IN_FLIGHT_MS, nanos::get);
+
+    @Test
+    void coalescesConcurrentCalls() throws Exception {
+        CompletableFuture<Integer> first = call();
+        CompletableFuture<Integer> second = call();
+
+        assertEquals(1, flights.inFlight());
+        runPending();
+
+        assertEquals(1, loads.get());
+        assertEquals(1, merges.get());
+        assertEquals(1, first.get());
+        assertEquals(1, second.get());
+    }
+
+    @Test
+    void sharesResultOnlyWithinFreshnessWindow() throws Exception {
+        call();
+        runPending();
+
+        advanceMs(FRESHNESS_MS - 1);
+        assertEquals(1, call().get());
+        assertEquals(1, merges.get());
+
+        advanceMs(1);
+        CompletableFuture<Integer> reloaded = call();
+        runPending();
+        assertEquals(2, reloaded.get());
+    }
+
+    @Test
+    void doesNotShareFailedCalls() throws Exception {
+        CompletableFuture<Integer> failed = flights.call("key", () -> {
+            throw new IllegalStateException("down");
+        }, merges::incrementAndGet);
+        runPending();
+
+        ExecutionException error = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+
+        CompletableFuture<Integer> retried = call();
+        runPending();
+        assertEquals(1, retried.get());
+        assertEquals(0, merges.get());
+    }
+
+    @Test
+    void failsAndForgetsCallsTheExecutorRejects() throws Exception {
+        SingleFlight<String, Integer> rejecting = new SingleFlight<>(command -> {
+            throw new RejectedExecutionException("saturated");
+        }, FRESHNESS_MS, MAX_IN_FLIGHT_MS, nanos::get);
+
+        CompletableFuture<Integer> rejected = rejecting.call("key", loads::incrementAndGet, merges::incrementAndGet);
+
+        ExecutionException error = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertEquals(0, rejecting.inFlight());
+
+        assertThrows(ExecutionException.class,
+                () -> rejecting.call("key", loads::incrementAndGet, merges::incrementAndGet).get());
+        assertEquals(0, merges.get());
+    }
+
+    @Test
+    void startsFreshCallOnceFlightIsHung() throws Exception {
+        CompletableFuture<Integer> hung = call();
+
+        advanceMs(MAX_IN_FLIGHT_MS);
+        CompletableFuture<Integer> fresh = call();
+        assertEquals(0, merges.get());
+
+        pending.poll();
+        runPending();
+        assertFalse(hung.isDone());
+        assertEquals(1, fresh.get());
+    }
+
+    @Test
+    void evictsHungAndExpiredFlights() throws Exception {
+        CompletableFuture<Integer> hung = flights.call("hung", loads::incrementAndGet, merges::incrementAndGet);
+        flights.call("done", loads::incrementAndGet, merges::incrementAndGet);
+        pending.poll();
+        runPending();
+
+        advanceMs(MAX_IN_FLIGHT_MS);
+        flights.evictStale();
+
+        ExecutionException error = assertThrows(ExecutionException.class, hung::get);
+        assertInstanceOf(TimeoutException.class, error.getCause());
+        assertEquals(0, flights.inFlight());
+
+        flights.call("done", loads::incrementAndGet, merges::incrementAndGet);
+        assertEquals(0, merges.get());
+        assertEquals(1, pending.size());
+    }
+
+    private CompletableFuture<Integer> call() {
+        return flights.call("key", loads::incrementAndGet, merges::incrementAndGet);
+    }
+
+    private void runPending() {
+        Runnable task;
+        while ((task = pending.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void advanceMs(long ms) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+}
@@ -0,0 +1,96 @@
+package com.lifeflow.request.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    // Level spans: level 0 = 80ms, level 1 = 640ms, level 2 = 5120ms, then overflow
+    private static final long TICK_MS = 10;
+    private static final int WHEEL_SIZE = 8;
+    private static final int LEVELS = 3;
+
+    private final TimingWheel<String> wheel = new TimingWheel<>(TICK_MS, WHEEL_SIZE, LEVELS, 0);
+
+    @Test
+    void firesOnFirstTickAtOrAfterDeadline() {
+        wheel.schedule("a", 25);
+
+        assertEquals(List.of(), wheel.advance(29));
+        assertEquals(List.of("a"), wheel.advance(30));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesPastDeadlinesOnNextAdvance() {
+        wheel.schedule("late", -5);
+
+        assertEquals(List.of("late"), wheel.advance(0));
+    }
+
+    @Test
+    void cascadesDownAtLevelBoundaries() {
+        wheel.schedule("last-in-level-0", 70);
+        wheel.schedule("first-in-level-1", 80);
+        wheel.schedule("inside-level-1", 85);
+        wheel.schedule("first-in-level-2", 640);
+
+        assertEquals(List.of("last-in-level-0"), wheel.advance(70));
+        assertEquals(List.of(), wheel.advance(79));
+        assertEquals(List.of("first-in-level-1"), wheel.advance(80));
+        assertEquals(List.of("inside-level-1"), wheel.advance(90));
+        assertEquals(List.of(), wheel.advance(639));
+        assertEquals(List.of("first-in-level-2"), wheel.advance(640));
+    }
+
+    @Test
+    void replacesOverflowAsTopLevelTurns() {
+        wheel.schedule("overflow", 6000);
+        wheel.schedule("far-overflow", 20_005);
+
+        assertEquals(List.of(), wheel.advance(5999));
+        assertEquals(List.of("overflow"), wheel.advance(6000));
+        assertEquals(List.of(), wheel.advance(20_009));
+        assertEquals(List.of("far-overflow"), wheel.advance(20_010));
+    }
+
+    @Test
+    void rescheduleAndCancelReplacePendingTimer() {
+        wheel.schedule("a", 50);
+        wheel.schedule("a", 700);
+        wheel.schedule("b", 60);
+
+        assertEquals(List.of(), wheel.advance(50));
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("b"));
+        assertEquals(List.of(), wheel.advance(690));
+        assertEquals(List.of("a"), wheel.advance(700));
+    }
+
+    @Test
+    void everyTimerFiresOnItsOwnTickAcrossAllLevels() {
+        Random random = new Random(42);
+        Map<String, Long> expectedFireAt = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            long deadline = random.nextInt(12_000);
+            wheel.schedule("t" + i, deadline);
+            expectedFireAt.put("t" + i, (deadline + TICK_MS - 1) / TICK_MS * TICK_MS);
+        }
+
+        for (long now = 0; now <= 12_000; now += TICK_MS) {
+            for (String key : wheel.advance(now)) {
+                assertEquals(expectedFireAt.remove(key), now, key);
+            }
+        }
+        assertTrue(expectedFireAt.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+}
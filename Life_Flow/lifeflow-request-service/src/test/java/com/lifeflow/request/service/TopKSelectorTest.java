@@ -0,0 +1,72 @@
+package com.lifeflow.request.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TopKSelectorTest {
+
+    @Test
+    void returnsBestFirstWithEarlierIndexWinningTies() {
+        TopKSelector selector = new TopKSelector(3);
+        int[] scores = {50, 80, 80, 10, 95, 80};
+        for (int i = 0; i < scores.length; i++) selector.offer(scores[i], i);
+
+        assertEquals(3, selector.size());
+        assertArrayEquals(new int[] {4, 1, 2}, selector.drainIndices());
+        assertEquals(0, selector.size());
+    }
+
+    @Test
+    void keepsEverythingWhenFewerThanK() {
+        TopKSelector selector = new TopKSelector(5);
+        selector.offer(1, 0);
+        selector.offer(3, 1);
+
+        assertFalse(selector.isFull());
+        assertArrayEquals(new int[] {1, 0}, selector.drainIndices());
+    }
+
+    @Test
+    void tracksWeakestKeptScore() {
+        TopKSelector selector = new TopKSelector(2);
+        selector.offer(40, 0);
+        selector.offer(70, 1);
+        assertEquals(40, selector.weakestScore());
+
+        selector.offer(60, 2);
+        assertEquals(60, selector.weakestScore());
+    }
+
+    @Test
+    void matchesStableDescendingSort() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            int n = 1 + random.nextInt(300);
+            int k = 1 + random.nextInt(40);
+            int[] scores = random.ints(n, 0, 20).toArray();
+
+            TopKSelector selector = new TopKSelector(k);
+            for (int i = 0; i < n; i++) selector.offer(scores[i], i);
+
+            int[] expected = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.comparingInt((Integer i) -> scores[i]).reversed())
+                    .limit(k)
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            assertArrayEquals(expected, selector.drainIndices());
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveK() {
+        assertThrows(IllegalArgumentException.class, () -> new TopKSelector(0));
+    }
+}